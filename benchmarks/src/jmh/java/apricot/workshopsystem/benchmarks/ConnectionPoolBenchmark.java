@@ -0,0 +1,118 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.NoConnectionReuseStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three blocking calls of one reserve request under sustained load, with and without connection reuse.
+ *
+ * <p>entity-service is replaced by a stub that answers at once, so the cost of setting up connections dominates.
+ * {@code pooled} reuses the connections of a pool sized for all threads, as the client of reservation-system does,
+ * {@code new-connection} opens a connection for every call and {@code url-connection} is a plain {@link RestTemplate}
+ * over {@link java.net.HttpURLConnection}, which keeps at most 5 idle connections per host.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+public class ConnectionPoolBenchmark {
+    private static final int MAX_CONNECTIONS = 64;
+    private static final String BOOKER_JSON = "{\"id\":1,\"name\":\"booker\"}";
+    private static final String ROOM_JSON = "{\"id\":1,\"name\":\"room\"}";
+    private static final String RESERVATION_JSON =
+            "{\"id\":1,\"roomId\":1,\"bookerId\":1,\"startDateTime\":\"2020-01-01T08:00:00\",\"endDateTime\":\"2020-01-01T09:00:00\"}";
+
+    @Param({"pooled", "new-connection", "url-connection"})
+    String client;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private ReservationDTO request;
+
+    @Setup
+    public void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/bookers/", exchange -> respond(exchange, BOOKER_JSON));
+        server.createContext("/api/rooms/", exchange -> respond(exchange, ROOM_JSON));
+        server.createContext("/api/reservations/reserve", exchange -> respond(exchange, RESERVATION_JSON));
+        server.start();
+
+        if ("url-connection".equals(client)) {
+            restTemplate = new RestTemplate();
+        } else {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(MAX_CONNECTIONS);
+            connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+
+            HttpClientBuilder builder = HttpClients.custom().setConnectionManager(connectionManager);
+            if ("new-connection".equals(client)) {
+                builder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
+            }
+
+            httpClient = builder.build();
+            restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        }
+
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + server.getAddress().getPort()));
+        request = Reservations.reservation(null, 1, Reservations.EPOCH, Reservations.EPOCH.plusHours(1));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public ReservationDTO reserve() {
+        restTemplate.getForObject("/api/bookers/{id}", BookerDTO.class, request.getBookerId());
+        restTemplate.getForObject("/api/rooms/{id}", RoomDTO.class, request.getRoomId());
+        return restTemplate.postForObject("/api/reservations/reserve", request, ReservationDTO.class);
+    }
+
+    private static void respond(final HttpExchange exchange, final String json) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
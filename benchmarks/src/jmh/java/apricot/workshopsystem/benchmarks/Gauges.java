@@ -0,0 +1,25 @@
+package apricot.workshopsystem.benchmarks;
+
+import org.openjdk.jmh.infra.IterationParams;
+
+/**
+ * Values measured once per iteration, reported as {@link org.openjdk.jmh.annotations.AuxCounters} events so they are
+ * kept in the JSON results next to the scores.
+ */
+final class Gauges {
+
+    private Gauges() {
+    }
+
+    /**
+     * Get the share of a value measured in one iteration. JMH adds up the events of all the measurement iterations, so
+     * the reported counter is the mean of the values.
+     *
+     * @param params the parameters of the iteration.
+     * @param value the value measured in the iteration.
+     * @return the value to store in the counter.
+     */
+    static double share(final IterationParams params, final double value) {
+        return value / params.getCount();
+    }
+}
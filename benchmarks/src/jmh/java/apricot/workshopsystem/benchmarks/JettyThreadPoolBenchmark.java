@@ -0,0 +1,78 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.util.VirtualThreads;
+import apricot.workshopsystem.common.webutil.VirtualThreadPool;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests in flight on the default Jetty pool versus the {@link VirtualThreadPool}.
+ *
+ * <p>Every operation submits a burst of tasks that block for a fixed time, like a request waiting on JDBC or a
+ * remote call, and waits for all of them. The platform pool has the Jetty default of 200 threads. The virtual mode
+ * needs Java 21 or newer.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JettyThreadPoolBenchmark {
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"100", "1000", "5000"})
+    int concurrentRequests;
+
+    @Param({"10"})
+    long blockingMillis;
+
+    private ThreadPool threadPool;
+
+    @Setup
+    public void setUp() throws Exception {
+        if ("virtual".equals(mode)) {
+            if (!VirtualThreads.isSupported()) {
+                throw new IllegalStateException("Virtual threads require Java 21 or newer");
+            }
+            threadPool = new VirtualThreadPool("benchmark-virtual-");
+        } else {
+            threadPool = new QueuedThreadPool(200);
+        }
+
+        ((LifeCycle) threadPool).start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ((LifeCycle) threadPool).stop();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            threadPool.execute(() -> {
+                try {
+                    Thread.sleep(blockingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,88 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.util.TimeUtil;
+import apricot.workshopsystem.reservationservice.index.RoomReservationIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict detection of a requested reservation against the reservations of one room.
+ *
+ * <p>{@code linearScan} is the check the reservation controller did before the room index, it calls
+ * {@link TimeUtil#overlaps} for every reservation of the room. Half of the probes conflict, half fall into a gap.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OverlapBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10", "1000", "100000"})
+    int roomSize;
+
+    private List<ReservationDTO> reservations;
+    private RoomReservationIndex index;
+    private LocalDateTime[] probeStarts;
+    private LocalDateTime[] probeEnds;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reservations = Reservations.schedule(1, roomSize);
+        index = new RoomReservationIndex(1);
+        reservations.forEach(index::add);
+
+        // probes are drawn once and cycled through, a per-invocation setup would cost more than the checks measured
+        Random random = new Random(42);
+        probeStarts = new LocalDateTime[PROBES];
+        probeEnds = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            // even slots are booked, odd slots are free
+            probeStarts[i] = Reservations.EPOCH.plusHours(random.nextInt(2 * roomSize)).plusMinutes(10);
+            probeEnds[i] = probeStarts[i].plusMinutes(30);
+        }
+    }
+
+    @Benchmark
+    public boolean timeUtilOverlaps() {
+        int i = nextProbe();
+        ReservationDTO reservation = reservations.get(0);
+        return TimeUtil.overlaps(reservation.getStartDateTime(), reservation.getEndDateTime(), probeStarts[i], probeEnds[i]);
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        int i = nextProbe();
+        for (ReservationDTO reservation : reservations) {
+            if (TimeUtil.overlaps(reservation.getStartDateTime(), reservation.getEndDateTime(), probeStarts[i], probeEnds[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Benchmark
+    public boolean intervalIndex() {
+        int i = nextProbe();
+        return index.findConflict(probeStarts[i], probeEnds[i]).isPresent();
+    }
+
+    private int nextProbe() {
+        probe = (probe + 1) & (PROBES - 1);
+        return probe;
+    }
+}
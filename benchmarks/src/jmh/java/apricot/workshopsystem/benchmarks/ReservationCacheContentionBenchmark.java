@@ -0,0 +1,139 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent bookings on the {@link ReservationCache}: every operation places a hold and releases it again.
+ *
+ * <p>Each operation runs with 1, 2, 4 and 8 threads. With one room all threads contend on the same room lock, with many
+ * rooms they should scale with the threads.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReservationCacheContentionBenchmark {
+    private static final int RESERVATIONS_PER_ROOM = 1000;
+    private static final int PROBES = 1024;
+
+    @Param({"1", "16", "1024"})
+    int rooms;
+
+    private ReservationCache cache;
+    private ReservationDTO[] probes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new ReservationCache();
+        for (int room = 1; room <= rooms; room++) {
+            Reservations.schedule(room, RESERVATIONS_PER_ROOM).forEach(cache::add);
+        }
+        cache.setLoaded(true);
+
+        // probes are drawn once and cycled through, so the measured operations neither draw nor allocate them
+        Random random = new Random(42);
+        probes = new ReservationDTO[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            LocalDateTime start = Reservations.EPOCH.plusHours(random.nextInt(2 * RESERVATIONS_PER_ROOM)).plusMinutes(10);
+            probes[i] = Reservations.reservation(null, 1 + random.nextInt(rooms), start, start.plusMinutes(30));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean holdAndRelease1(final Cursor cursor) {
+        return holdAndRelease(cursor);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean holdAndRelease2(final Cursor cursor) {
+        return holdAndRelease(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean holdAndRelease4(final Cursor cursor) {
+        return holdAndRelease(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean holdAndRelease8(final Cursor cursor) {
+        return holdAndRelease(cursor);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean findConflict1(final Cursor cursor) {
+        return findConflict(cursor);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean findConflict2(final Cursor cursor) {
+        return findConflict(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean findConflict4(final Cursor cursor) {
+        return findConflict(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean findConflict8(final Cursor cursor) {
+        return findConflict(cursor);
+    }
+
+    private boolean holdAndRelease(final Cursor cursor) {
+        ReservationDTO request = probes[cursor.next()];
+
+        Optional<ReservationDTO> conflict = cache.tryHold(request);
+        if (conflict.isEmpty()) {
+            cache.release(request);
+        }
+
+        return conflict.isPresent();
+    }
+
+    private boolean findConflict(final Cursor cursor) {
+        return cache.findConflict(probes[cursor.next()]).isPresent();
+    }
+
+    /**
+     * Position of a thread in the shared probes.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int probe;
+
+        @Setup(Level.Trial)
+        public void setUp(final ThreadParams threadParams) {
+            // threads start spread over the probes, so they do not book the same rooms in lockstep
+            probe = threadParams.getThreadIndex() * PROBES / threadParams.getThreadCount();
+        }
+
+        int next() {
+            probe = (probe + 1) & (PROBES - 1);
+            return probe;
+        }
+    }
+}
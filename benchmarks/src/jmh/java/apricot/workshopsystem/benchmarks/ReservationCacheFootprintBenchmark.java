@@ -0,0 +1,91 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap footprint of the {@link ReservationCache} holding a multi-million reservation history.
+ *
+ * <p>The timed part is the load of the cache, as done at warm-up: reservations are appended and every room is sorted
+ * once. They come in start order, or shuffled as in the warm-up export which is ordered by id. After every iteration
+ * the retained size of the last loaded cache is measured with JOL and reported as the {@code cacheBytesPerReservation}
+ * secondary result, next to {@code dtoBytesPerReservation} for the same reservations kept as {@link ReservationDTO}s,
+ * which is what the cache held before it stored primitive columns. Run with {@code -prof gc} to also see the
+ * allocation rate.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ReservationCacheFootprintBenchmark {
+    private static final int ROOMS = 1000;
+
+    @Param({"1000", "5000"})
+    int reservationsPerRoom;
+
+    @Param({"start", "shuffled"})
+    String order;
+
+    private List<ReservationDTO> reservations;
+    private ReservationCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reservations = new ArrayList<>(ROOMS * reservationsPerRoom);
+        for (int room = 1; room <= ROOMS; room++) {
+            reservations.addAll(Reservations.schedule(room, reservationsPerRoom));
+        }
+
+        if ("shuffled".equals(order)) {
+            Collections.shuffle(reservations, new Random(42));
+        }
+    }
+
+    @Benchmark
+    public ReservationCache load(final Footprint footprint) {
+        cache = new ReservationCache();
+        reservations.forEach(cache::append);
+        cache.finishLoading();
+        return cache;
+    }
+
+    /**
+     * Retained heap per reservation, measured outside of the timed part.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double cacheBytesPerReservation;
+        public double dtoBytesPerReservation;
+
+        @TearDown(Level.Iteration)
+        public void measure(final ReservationCacheFootprintBenchmark benchmark, final IterationParams params) {
+            int count = benchmark.reservations.size();
+            cacheBytesPerReservation = Gauges.share(params, (double) GraphLayout.parseInstance(benchmark.cache).totalSize() / count);
+            dtoBytesPerReservation = Gauges.share(params, (double) GraphLayout.parseInstance(benchmark.reservations).totalSize() / count);
+            benchmark.cache = null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round-trips of {@link ReservationDTO} with its {@code LocalDateTime} serializers, configured like the
+ * {@link ObjectMapper} of the services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReservationJsonBenchmark {
+    @Param({"1", "100", "1000"})
+    int listSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private ReservationDTO[] reservations;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<ReservationDTO> schedule = Reservations.schedule(1, listSize);
+
+        writer = objectMapper.writerFor(ReservationDTO[].class);
+        reader = objectMapper.readerFor(ReservationDTO[].class);
+        reservations = schedule.toArray(new ReservationDTO[0]);
+        json = writer.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public ReservationDTO[] deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public ReservationDTO[] roundTrip() throws IOException {
+        return reader.readValue(writer.writeValueAsBytes(reservations));
+    }
+}
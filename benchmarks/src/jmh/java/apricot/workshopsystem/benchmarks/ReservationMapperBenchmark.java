@@ -0,0 +1,49 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.entityservice.mapper.ReservationMapper;
+import apricot.workshopsystem.entityservice.model.dao.Reservation;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List conversions of the MapStruct {@link ReservationMapper}, as done by the list and batch endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReservationMapperBenchmark {
+    @Param({"1", "100", "10000"})
+    int listSize;
+
+    private ReservationMapper mapper;
+    private List<ReservationDTO> dtos;
+    private List<Reservation> entities;
+
+    @Setup
+    public void setUp() {
+        mapper = Mappers.getMapper(ReservationMapper.class);
+        dtos = Reservations.schedule(1, listSize);
+        entities = mapper.toEntity(dtos);
+    }
+
+    @Benchmark
+    public List<ReservationDTO> toDto() {
+        return mapper.toDto(entities);
+    }
+
+    @Benchmark
+    public List<Reservation> toEntity() {
+        return mapper.toEntity(dtos);
+    }
+}
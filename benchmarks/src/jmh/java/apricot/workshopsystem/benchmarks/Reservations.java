@@ -0,0 +1,42 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class Reservations {
+    static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    private Reservations() {
+    }
+
+    /**
+     * Create one hour reservations of a room, one every two hours, so every other hour is free.
+     *
+     * @param roomId the room of the reservations.
+     * @param count the number of reservations.
+     * @return the reservations ordered by start.
+     */
+    static List<ReservationDTO> schedule(final long roomId, final int count) {
+        List<ReservationDTO> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reservations.add(reservation((long) i + 1, roomId, EPOCH.plusHours(2L * i), EPOCH.plusHours(2L * i).plusMinutes(59)));
+        }
+        return reservations;
+    }
+
+    static ReservationDTO reservation(final Long id, final long roomId, final LocalDateTime start, final LocalDateTime end) {
+        ReservationDTO reservation = new ReservationDTO();
+        reservation.setId(id);
+        reservation.setRoomId(roomId);
+        reservation.setBookerId(1);
+        reservation.setStartDateTime(start);
+        reservation.setEndDateTime(end);
+        return reservation;
+    }
+}
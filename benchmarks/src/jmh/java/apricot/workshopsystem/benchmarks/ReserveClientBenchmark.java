@@ -0,0 +1,188 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.IterationParams;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The remote calls of reserve requests, blocking on {@link RestTemplate} versus non-blocking on {@link WebClient}.
+ *
+ * <p>entity-service is replaced by a stub that answers after a fixed latency without holding a thread per request.
+ * The blocking path makes the booker, room and reserve calls one after the other, the non-blocking path looks up the
+ * booker and room in parallel. An operation is a wave of {@code concurrency} requests in flight at once: the blocking
+ * path needs one thread per request, as a servlet container does, the non-blocking path issues them all from the
+ * benchmark thread. The sample time mode reports the latency percentiles of a wave, including p99.</p>
+ *
+ * <p>The peak number of live threads of the JVM in an iteration is reported as the {@code peakThreads} secondary result
+ * of the throughput mode: it grows with the concurrency on the blocking path and stays flat on the non-blocking one.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReserveClientBenchmark {
+    private static final String BOOKER_JSON = "{\"id\":1,\"name\":\"booker\"}";
+    private static final String ROOM_JSON = "{\"id\":1,\"name\":\"room\"}";
+    private static final String RESERVATION_JSON =
+            "{\"id\":1,\"roomId\":1,\"bookerId\":1,\"startDateTime\":\"2020-01-01T08:00:00\",\"endDateTime\":\"2020-01-01T09:00:00\"}";
+
+    @Param({"5"})
+    long latencyMillis;
+
+    @Param({"16", "64", "256"})
+    int concurrency;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScheduledExecutorService responseScheduler;
+    private ThreadPoolExecutor requestExecutor;
+    private RestTemplate restTemplate;
+    private WebClient webClient;
+    private ReservationDTO request;
+
+    @Setup
+    public void setUp() throws IOException {
+        // a fixed number of stub threads, so the thread count only varies with the client
+        serverExecutor = Executors.newFixedThreadPool(2);
+        responseScheduler = Executors.newScheduledThreadPool(2);
+        requestExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(concurrency);
+        requestExecutor.prestartAllCoreThreads();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/bookers/", exchange -> respond(exchange, BOOKER_JSON));
+        server.createContext("/api/rooms/", exchange -> respond(exchange, ROOM_JSON));
+        server.createContext("/api/reservations/reserve", exchange -> respond(exchange, RESERVATION_JSON));
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(baseUrl));
+        // a wave makes at most three calls per request at once, none of them may queue for a connection
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("stub").maxConnections(3 * concurrency).build();
+        webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        request = Reservations.reservation(null, 1, Reservations.EPOCH, Reservations.EPOCH.plusHours(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        responseScheduler.shutdownNow();
+        requestExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<ReservationDTO> blocking(final Threads threads) throws InterruptedException, ExecutionException {
+        List<Future<ReservationDTO>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(requestExecutor.submit(this::reserveBlocking));
+        }
+
+        List<ReservationDTO> reservations = new ArrayList<>(concurrency);
+        for (Future<ReservationDTO> future : futures) {
+            reservations.add(future.get());
+        }
+        return reservations;
+    }
+
+    @Benchmark
+    public List<ReservationDTO> nonBlocking(final Threads threads) {
+        return Flux.range(0, concurrency)
+                .flatMap(i -> reserveNonBlocking(), concurrency)
+                .collectList()
+                .block();
+    }
+
+    private ReservationDTO reserveBlocking() {
+        restTemplate.getForObject("/api/bookers/{id}", BookerDTO.class, request.getBookerId());
+        restTemplate.getForObject("/api/rooms/{id}", RoomDTO.class, request.getRoomId());
+        return restTemplate.postForObject("/api/reservations/reserve", request, ReservationDTO.class);
+    }
+
+    private Mono<ReservationDTO> reserveNonBlocking() {
+        Mono<BookerDTO> booker = webClient.get().uri("/api/bookers/{id}", request.getBookerId()).retrieve().bodyToMono(BookerDTO.class);
+        Mono<RoomDTO> room = webClient.get().uri("/api/rooms/{id}", request.getRoomId()).retrieve().bodyToMono(RoomDTO.class);
+
+        return Mono.zip(booker, room)
+                .then(webClient.post().uri("/api/reservations/reserve").bodyValue(request).retrieve().bodyToMono(ReservationDTO.class));
+    }
+
+    private void respond(final HttpExchange exchange, final String json) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+
+        // the response is sent later by the scheduler, no stub thread sleeps while the latency elapses
+        responseScheduler.schedule(() -> {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try {
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Peak number of live threads of the JVM during an iteration. Sample time mode does not report it.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Threads {
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        public double peakThreads;
+
+        @Setup(Level.Iteration)
+        public void resetPeak() {
+            threadMXBean.resetPeakThreadCount();
+        }
+
+        @TearDown(Level.Iteration)
+        public void measurePeak(final IterationParams params) {
+            peakThreads = Gauges.share(params, threadMXBean.getPeakThreadCount());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.FreeSlotDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import apricot.workshopsystem.reservationservice.index.FreeSlotFinder;
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import apricot.workshopsystem.reservationservice.index.RoomAvailability;
+import apricot.workshopsystem.reservationservice.index.RoomCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free room and free slot search over 10k rooms and 1M reservations, answered from the in-memory indexes.
+ *
+ * <p>Every room has one hour reservations in randomly shifted two hour slots, so about half of the rooms are free
+ * for any probed hour, while a 90 minute slot only fits where two reservations are shifted apart. Seats are spread
+ * uniformly between 1 and 100.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoomAvailabilityBenchmark {
+    private static final int ROOMS = 10_000;
+    private static final int RESERVATIONS_PER_ROOM = 100;
+    private static final Duration SLOT_DURATION = Duration.ofMinutes(90);
+    private static final int PROBES = 1024;
+
+    @Param({"1", "90"})
+    int minSeats;
+
+    @Param({"10", "1000"})
+    int limit;
+
+    private RoomAvailability roomAvailability;
+    private FreeSlotFinder freeSlotFinder;
+    private LocalDateTime[] probeStarts;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        RoomCatalog roomCatalog = new RoomCatalog();
+        ReservationCache reservationCache = new ReservationCache();
+
+        long id = 1;
+        for (long roomId = 1; roomId <= ROOMS; roomId++) {
+            RoomDTO room = new RoomDTO();
+            room.setId(roomId);
+            room.setName("room-" + roomId);
+            room.setNumberOfSeat(1 + random.nextInt(100));
+            roomCatalog.put(room);
+
+            for (int i = 0; i < RESERVATIONS_PER_ROOM; i++) {
+                LocalDateTime start = Reservations.EPOCH.plusHours(2L * i + random.nextInt(2));
+                reservationCache.add(Reservations.reservation(id++, roomId, start, start.plusMinutes(59)));
+            }
+        }
+
+        reservationCache.setLoaded(true);
+        roomAvailability = new RoomAvailability(roomCatalog, reservationCache);
+        freeSlotFinder = new FreeSlotFinder(roomCatalog, reservationCache);
+
+        // probes are drawn once and cycled through, without a per-invocation setup
+        probeStarts = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeStarts[i] = Reservations.EPOCH.plusHours(random.nextInt(2 * RESERVATIONS_PER_ROOM)).plusMinutes(10);
+        }
+    }
+
+    @Benchmark
+    public List<RoomDTO> findFree() {
+        LocalDateTime from = nextProbe();
+        return roomAvailability.findFree(from, from.plusMinutes(30), minSeats, limit);
+    }
+
+    @Benchmark
+    public List<FreeSlotDTO> findFreeSlots() {
+        LocalDateTime from = nextProbe();
+        return freeSlotFinder.findFirst(from, from.plusDays(7), SLOT_DURATION, minSeats, limit);
+    }
+
+    private LocalDateTime nextProbe() {
+        probe = (probe + 1) & (PROBES - 1);
+        return probeStarts[probe];
+    }
+}
@@ -0,0 +1,91 @@
+package apricot.workshopsystem.benchmarks;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.IterationParams;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of {@link ReservationDTO} lists as JSON, with text timestamps, versus CBOR and Smile, with
+ * epoch timestamps.
+ *
+ * <p>The size of the encoded payload per reservation is reported as the {@code bytesPerReservation} secondary result,
+ * for every format and list size.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"1", "1000"})
+    int listSize;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private ReservationDTO[] reservations;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = objectMapperBuilder(format).build();
+
+        writer = objectMapper.writerFor(ReservationDTO[].class);
+        reader = objectMapper.readerFor(ReservationDTO[].class);
+        reservations = Reservations.schedule(1, listSize).toArray(new ReservationDTO[0]);
+        payload = writer.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public byte[] encode(final PayloadSize payloadSize) throws JsonProcessingException {
+        return writer.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public ReservationDTO[] decode(final PayloadSize payloadSize) throws IOException {
+        return reader.readValue(payload);
+    }
+
+    private static Jackson2ObjectMapperBuilder objectMapperBuilder(final String format) {
+        switch (format) {
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile();
+            default:
+                return Jackson2ObjectMapperBuilder.json();
+        }
+    }
+
+    /**
+     * Size of the encoded payload per reservation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public double bytesPerReservation;
+
+        @TearDown(Level.Iteration)
+        public void measure(final WireFormatBenchmark benchmark, final IterationParams params) {
+            bytesPerReservation = Gauges.share(params, (double) benchmark.payload.length / benchmark.listSize);
+        }
+    }
+}
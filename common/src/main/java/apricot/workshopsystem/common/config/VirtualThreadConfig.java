@@ -0,0 +1,38 @@
+package apricot.workshopsystem.common.config;
+
+import apricot.workshopsystem.common.util.VirtualThreads;
+import apricot.workshopsystem.common.webutil.VirtualThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the request handling of Jetty on virtual threads when {@code workshop.virtual-threads.enabled} is true.
+ *
+ * <p>Requires Java 21 or newer at runtime, on older versions the platform thread pool is kept. Imported by the
+ * services running on Jetty. The same switch moves the background threads blocking on outbound calls, such as the
+ * change feed poller, to virtual threads, see {@link VirtualThreads#newThread(String, Runnable, boolean)}. Blocking
+ * outbound calls made while handling a request run on the request thread.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "workshop.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<JettyServletWebServerFactory> virtualThreadCustomizer() {
+        return factory -> {
+            if (!VirtualThreads.isSupported()) {
+                LOG.warn("Virtual threads are not supported on Java {}, using the platform thread pool", System.getProperty("java.version"));
+                return;
+            }
+
+            LOG.info("Handling requests on virtual threads");
+            factory.setThreadPool(new VirtualThreadPool("jetty-virtual-"));
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package apricot.workshopsystem.common.dataformat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads a {@link LocalDateTime} written by {@link LocalDateTimeWireSerializer}: epoch milliseconds, taken as UTC, or
+ * anything {@link LocalDateTimeDeserializer} accepts.
+ */
+public class LocalDateTimeWireDeserializer extends StdDeserializer<LocalDateTime> {
+
+    public LocalDateTimeWireDeserializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public LocalDateTime deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneOffset.UTC);
+        }
+
+        return LocalDateTimeDeserializer.INSTANCE.deserialize(parser, context);
+    }
+}
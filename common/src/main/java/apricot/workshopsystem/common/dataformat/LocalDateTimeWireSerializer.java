@@ -0,0 +1,32 @@
+package apricot.workshopsystem.common.dataformat;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes a {@link LocalDateTime} as ISO-8601 text in JSON and as epoch milliseconds, taken as UTC, in binary formats
+ * such as CBOR. Sub-millisecond precision is dropped in binary formats.
+ *
+ * @see LocalDateTimeWireDeserializer
+ */
+public class LocalDateTimeWireSerializer extends StdSerializer<LocalDateTime> {
+
+    public LocalDateTimeWireSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(final LocalDateTime value, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+        if (generator.canWriteBinaryNatively()) {
+            generator.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        } else {
+            LocalDateTimeSerializer.INSTANCE.serialize(value, generator, provider);
+        }
+    }
+}
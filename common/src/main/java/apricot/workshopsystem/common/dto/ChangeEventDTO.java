@@ -0,0 +1,33 @@
+package apricot.workshopsystem.common.dto;
+
+import lombok.Data;
+
+/**
+ * An entry of the entity-service change feed.
+ *
+ * <p>Sequence numbers are strictly increasing and assigned after commit, a number is never visible before a smaller
+ * one. Reservation events carry the state of the reservation after and before the change, except the single event
+ * without state published for each archived batch. Room and booker events only identify the changed entity.</p>
+ */
+@Data
+public class ChangeEventDTO {
+    private long sequence;
+
+    private EntityType entityType;
+
+    private Operation operation;
+
+    private long entityId;
+
+    private ReservationDTO reservation;
+
+    private ReservationDTO previousReservation;
+
+    public enum EntityType {
+        BOOKER, ROOM, RESERVATION
+    }
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+}
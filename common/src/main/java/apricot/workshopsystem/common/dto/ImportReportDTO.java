@@ -0,0 +1,33 @@
+package apricot.workshopsystem.common.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a bulk import. Rejected rows are reported with their line number, up to a limit.
+ */
+@Data
+public class ImportReportDTO {
+    private long rows;
+
+    private long imported;
+
+    private long rejected;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private boolean errorsTruncated;
+
+    private List<Error> errors = new ArrayList<>();
+
+    @Data
+    public static class Error {
+        private long line;
+
+        private String message;
+    }
+}
@@ -0,0 +1,31 @@
+package apricot.workshopsystem.common.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch reservation, with one item per requested reservation in request order.
+ */
+@Data
+public class ReservationBatchResultDTO {
+    private boolean applied;
+
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    public static class Item {
+        private int index;
+
+        private Status status;
+
+        private ReservationDTO reservation;
+
+        private String message;
+    }
+
+    public enum Status {
+        CREATED, CONFLICT, ROOM_NOT_FOUND, BOOKER_NOT_FOUND, INVALID, NOT_APPLIED
+    }
+}
@@ -1,9 +1,9 @@
 package apricot.workshopsystem.common.dto;
 
+import apricot.workshopsystem.common.dataformat.LocalDateTimeWireDeserializer;
+import apricot.workshopsystem.common.dataformat.LocalDateTimeWireSerializer;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.Data;
 
 import javax.validation.constraints.Positive;
@@ -19,11 +19,11 @@ public class ReservationDTO {
     @Positive
     private long bookerId;
 
-    @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeWireSerializer.class)
+    @JsonDeserialize(using = LocalDateTimeWireDeserializer.class)
     private LocalDateTime startDateTime;
 
-    @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonSerialize(using = LocalDateTimeWireSerializer.class)
+    @JsonDeserialize(using = LocalDateTimeWireDeserializer.class)
     private LocalDateTime endDateTime;
 }
@@ -0,0 +1,58 @@
+package apricot.workshopsystem.common.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesEncoder;
+import zipkin2.reporter.Reporter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends finished spans to a file, one Zipkin v2 JSON span per line, for tracing without a running collector.
+ *
+ * <p>The file can be loaded into Zipkin with its {@code POST /api/v2/spans} endpoint once wrapped in a JSON array, or
+ * inspected with line-based tools. Spans are flushed on every write, so the file is complete when a service is killed.</p>
+ */
+public class FileSpanReporter implements Reporter<Span>, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(FileSpanReporter.class);
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final OutputStream output;
+
+    public FileSpanReporter(final Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.output = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open span file: " + file, e);
+        }
+
+        LOG.info("Writing spans to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void report(final Span span) {
+        try {
+            output.write(SpanBytesEncoder.JSON_V2.encode(span));
+            output.write(NEW_LINE);
+            output.flush();
+        } catch (IOException e) {
+            LOG.warn("Could not write span {}: {}", span.id(), e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
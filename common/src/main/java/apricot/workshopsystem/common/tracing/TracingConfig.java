@@ -0,0 +1,26 @@
+package apricot.workshopsystem.common.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.sleuth.zipkin2.ZipkinAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import zipkin2.Span;
+import zipkin2.reporter.Reporter;
+
+import java.nio.file.Paths;
+
+/**
+ * Writes finished spans to the file set in {@code workshop.tracing.file} instead of sending them to the Zipkin
+ * collector at {@code spring.zipkin.base-url}. Spans are only reported when {@code spring.zipkin.enabled} is true.
+ * Imported by the services.
+ */
+@Configuration
+@ConditionalOnProperty(name = "workshop.tracing.file")
+public class TracingConfig {
+
+    @Bean(name = ZipkinAutoConfiguration.REPORTER_BEAN_NAME)
+    public Reporter<Span> fileSpanReporter(@Value("${workshop.tracing.file}") String file) {
+        return new FileSpanReporter(Paths.get(file));
+    }
+}
@@ -0,0 +1,101 @@
+package apricot.workshopsystem.common.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utility class for creating virtual threads.
+ *
+ * <p>The modules are compiled for Java 11, so the virtual thread API is looked up by reflection and is only available
+ * when the services run on Java 21 or newer.</p>
+ */
+public final class VirtualThreads {
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Check whether the running JVM supports virtual threads.
+     *
+     * @return true if virtual threads can be created.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Create a thread factory of virtual threads.
+     *
+     * @param prefix The prefix of the thread names, followed by a counter.
+     * @return the thread factory.
+     * @throws IllegalStateException if virtual threads are not supported.
+     */
+    public static ThreadFactory newThreadFactory(final String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer, running on " + System.getProperty("java.version"));
+        }
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task.
+     *
+     * @param prefix The prefix of the thread names, followed by a counter.
+     * @return the executor.
+     * @throws IllegalStateException if virtual threads are not supported.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final String prefix) {
+        ThreadFactory threadFactory = newThreadFactory(prefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Create a thread for a long-running background task, such as a poller blocking on outbound calls.
+     *
+     * @param name The name of the thread.
+     * @param task The task run by the thread.
+     * @param virtual True for a virtual thread. A platform daemon thread is created if false or if virtual threads are
+     *      not supported.
+     * @return the thread, not started yet.
+     */
+    public static Thread newThread(final String name, final Runnable task, final boolean virtual) {
+        if (!virtual || !isSupported()) {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class).invoke(builder, name);
+            return (Thread) builderType.getMethod("unstarted", Runnable.class).invoke(builder, task);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread", e);
+        }
+    }
+
+    private static Method findMethod(final Class<?> type, final String name, final Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
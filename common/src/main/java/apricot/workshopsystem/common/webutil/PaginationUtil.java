@@ -1,10 +1,17 @@
 package apricot.workshopsystem.common.webutil;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.text.MessageFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * Utility class for handling pagination.
@@ -49,6 +56,66 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Generate pagination headers for a keyset (seek) paginated {@link org.springframework.data.domain.Slice}.
+     *
+     * <p>The {@code next} link carries the cursor of the last element in the {@code after} parameter, so the next slice is
+     * found with an index seek instead of skipping an offset. {@code X-Total-Count} is only added when a total is given.</p>
+     *
+     * @param uriBuilder The URI builder.
+     * @param slice The slice.
+     * @param cursor The function extracting the cursor (the sort key) of an element.
+     * @param totalCount The total number of elements, or null to omit the header.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice,
+                                                                      Function<T, ?> cursor, Long totalCount) {
+        HttpHeaders headers = new HttpHeaders();
+        if (totalCount != null) {
+            headers.add(HEADER_X_TOTAL_COUNT, Long.toString(totalCount));
+        }
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            link.append(prepareKeysetLink(uriBuilder, String.valueOf(cursor.apply(content.get(content.size() - 1))), pageSize, "next"))
+                    .append(",");
+        }
+        link.append(prepareKeysetLink(uriBuilder, "0", pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    /**
+     * Resolve the total count of a keyset paginated list as requested by the client.
+     *
+     * @param countMode The requested count mode.
+     * @param exact The exact count, run only in {@link CountMode#EXACT} mode.
+     * @param estimate The estimated count, run only in {@link CountMode#ESTIMATE} mode.
+     * @return the total count, or null in {@link CountMode#NONE} mode.
+     */
+    public static Long totalCount(CountMode countMode, LongSupplier exact, LongSupplier estimate) {
+        switch (countMode) {
+            case EXACT:
+                return exact.getAsLong();
+            case ESTIMATE:
+                return estimate.getAsLong();
+            default:
+                return null;
+        }
+    }
+
+    private static String prepareKeysetLink(UriComponentsBuilder uriBuilder, String after, int pageSize, String relType) {
+        String uri = uriBuilder.replaceQueryParam("page")
+                .replaceQueryParam("after", after)
+                .replaceQueryParam("size", Integer.toString(pageSize))
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+
     private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
         return MessageFormat.format(HEADER_LINK_FORMAT, preparePageUri(uriBuilder, pageNumber, pageSize), relType);
     }
@@ -60,5 +127,31 @@ public final class PaginationUtil {
                 .replace(",", "%2C")
                 .replace(";", "%3B");
     }
-}
 
+    /**
+     * How the {@code X-Total-Count} header of a keyset paginated list is computed.
+     */
+    public enum CountMode {
+        /** Run a count query. */
+        EXACT,
+        /** Read the row count estimate of the database statistics. */
+        ESTIMATE,
+        /** Omit the header. */
+        NONE;
+
+        /**
+         * Parse a count mode request parameter, ignoring case.
+         *
+         * @param value The request parameter.
+         * @return the count mode.
+         * @throws ResponseStatusException if the value is not a count mode.
+         */
+        public static CountMode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Count must be one of exact, estimate or none: " + value);
+            }
+        }
+    }
+}
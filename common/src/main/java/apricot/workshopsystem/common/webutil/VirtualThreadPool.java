@@ -0,0 +1,77 @@
+package apricot.workshopsystem.common.webutil;
+
+import apricot.workshopsystem.common.util.VirtualThreads;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty {@link ThreadPool} running every task on a new virtual thread.
+ *
+ * <p>Blocking I/O in a request only parks its virtual thread, so the number of in-flight requests is no longer bound
+ * by the size of a platform thread pool. The pool is never low on threads and has no idle threads.</p>
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private final String prefix;
+    private final AtomicInteger threads = new AtomicInteger();
+    private volatile ExecutorService executor;
+    private volatile CountDownLatch stopped = new CountDownLatch(1);
+
+    public VirtualThreadPool(final String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    protected void doStart() {
+        stopped = new CountDownLatch(1);
+        executor = VirtualThreads.newThreadPerTaskExecutor(prefix);
+    }
+
+    @Override
+    protected void doStop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        stopped.countDown();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        threads.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    threads.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            threads.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        stopped.await();
+    }
+
+    @Override
+    public int getThreads() {
+        return threads.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
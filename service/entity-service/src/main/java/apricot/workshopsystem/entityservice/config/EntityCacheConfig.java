@@ -0,0 +1,68 @@
+package apricot.workshopsystem.entityservice.config;
+
+import apricot.workshopsystem.entityservice.model.dao.Booker;
+import apricot.workshopsystem.entityservice.model.dao.Room;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Enables the Hibernate second-level cache and query cache when {@code workshop.entity-cache.enabled} is true.
+ *
+ * <p>Only {@link Room} and {@link Booker} are cached, they are read on every reservation but rarely written.
+ * The entity and query regions are bounded Caffeine caches with a maximum size and a time to live. Hibernate
+ * invalidates them on every save and delete, and the update timestamps region keeps stale query results
+ * from being served after a write.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "workshop.entity-cache.enabled", havingValue = "true")
+public class EntityCacheConfig {
+    public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${workshop.entity-cache.maximum-size:10000}") long maximumSize,
+                                           @Value("${workshop.entity-cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+        CaffeineConfiguration<Object, Object> bounded = new CaffeineConfiguration<>();
+        bounded.setMaximumSize(OptionalLong.of(maximumSize));
+        bounded.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(expireAfterWriteSeconds).toNanos()));
+        bounded.setStatisticsEnabled(true);
+
+        cacheManager.createCache(Room.class.getName(), bounded);
+        cacheManager.createCache(Booker.class.getName(), bounded);
+        cacheManager.createCache(QUERY_RESULTS_REGION, bounded);
+
+        // the timestamps must outlive every cached query result, so this region is never evicted
+        CaffeineConfiguration<Object, Object> unbounded = new CaffeineConfiguration<>();
+        unbounded.setStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, unbounded);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernatePropertiesCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
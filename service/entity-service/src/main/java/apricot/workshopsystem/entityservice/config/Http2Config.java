@@ -0,0 +1,38 @@
+package apricot.workshopsystem.entityservice.config;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.ServerConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Accepts HTTP/2 over cleartext next to HTTP/1.1 when {@code workshop.http2.enabled} is true.
+ *
+ * <p>Clients that open the connection with the HTTP/2 preface get a multiplexed connection, the others are served
+ * over HTTP/1.1 as before.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "workshop.http2.enabled", havingValue = "true")
+public class Http2Config {
+    private static final Logger LOG = LoggerFactory.getLogger(Http2Config.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<JettyServletWebServerFactory> http2Customizer() {
+        return factory -> factory.addServerCustomizers(server -> {
+            for (Connector connector : server.getConnectors()) {
+                HttpConnectionFactory http = connector.getConnectionFactory(HttpConnectionFactory.class);
+                if (connector instanceof ServerConnector && http != null) {
+                    LOG.info("Accepting HTTP/2 over cleartext on {}", connector);
+                    ((ServerConnector) connector).addConnectionFactory(new HTTP2CServerConnectionFactory(http.getHttpConfiguration()));
+                }
+            }
+        });
+    }
+}
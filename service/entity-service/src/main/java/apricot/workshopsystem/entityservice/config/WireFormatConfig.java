@@ -0,0 +1,23 @@
+package apricot.workshopsystem.entityservice.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serves the DTOs as CBOR to the clients that ask for {@code application/cbor}, next to JSON.
+ *
+ * <p>CBOR is more compact and faster to parse than JSON, and the reservation times are written as epoch milliseconds
+ * instead of text, see {@link apricot.workshopsystem.common.dataformat.LocalDateTimeWireSerializer}. reservation-system
+ * uses it for its lookups, the change feed and the warm-up exports. JSON stays the default for every other client.</p>
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+}
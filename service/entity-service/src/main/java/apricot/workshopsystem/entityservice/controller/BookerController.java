@@ -1,11 +1,13 @@
 package apricot.workshopsystem.entityservice.controller;
 
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
 import apricot.workshopsystem.common.dto.BookerDTO;
 import apricot.workshopsystem.common.webutil.HeaderUtil;
 import apricot.workshopsystem.common.webutil.PaginationUtil;
 import apricot.workshopsystem.common.webutil.ResponseUtil;
 import apricot.workshopsystem.entityservice.model.dao.Booker;
 import apricot.workshopsystem.entityservice.service.BookerService;
+import apricot.workshopsystem.entityservice.version.TableVersions;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
@@ -13,11 +15,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -28,7 +32,7 @@ import java.util.List;
 import java.util.Optional;
 
 @RestController
-@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @Api(value = "booker-service")
 public class BookerController {
     private static final Logger LOG = LoggerFactory.getLogger(BookerController.class);
@@ -38,18 +42,45 @@ public class BookerController {
     @Autowired
     private BookerService bookerService;
 
+    @Autowired
+    private TableVersions tableVersions;
+
     /**
      * {@code GET /api/bookers} : Get all the bookers.
      *
+     * <p>With {@code after} the bookers are paginated by id (keyset pagination): the {@code next} link carries the id of
+     * the last booker, deep pages cost the same as the first one and no count query is run unless requested.</p>
+     *
      * @param pageable The pagination information.
+     * @param after The id of the last booker of the previous page, 0 for the first page, or null for offset pagination.
+     * @param count How {@code X-Total-Count} is computed with keyset pagination: {@code exact}, {@code estimate} or {@code none}.
+     * @param webRequest The request, checked against the {@code ETag} of the page.
      *
-     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of bookers in body.
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of bookers in body,
+     *      or with status {@code 304 (Not Modified)} if the bookers are unchanged since the {@code If-None-Match} version.
      */
     @GetMapping("/bookers")
     @ApiOperation(value = "List all bookers", response = Booker.class, responseContainer = "List")
-    public ResponseEntity<List<BookerDTO>> getAll(final Pageable pageable) {
+    public ResponseEntity<List<BookerDTO>> getAll(final Pageable pageable,
+                                                  @RequestParam(value = "after", required = false) Long after,
+                                                  @RequestParam(value = "count", defaultValue = "none") String count,
+                                                  WebRequest webRequest) {
         LOG.info("REST request to get all Bookers");
 
+        if (tableVersions.checkNotModified(webRequest, ChangeEventDTO.EntityType.BOOKER)) {
+            return null;
+        }
+
+        if (after != null) {
+            PaginationUtil.CountMode countMode = PaginationUtil.CountMode.parse(count);
+            Slice<BookerDTO> slice = bookerService.findAllAfter(after, pageable.getPageSize());
+            Long totalCount = PaginationUtil.totalCount(countMode, bookerService::count, bookerService::estimateCount);
+            HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice,
+                    BookerDTO::getId, totalCount);
+
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+
         Page<BookerDTO> page = bookerService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
 
@@ -60,14 +91,20 @@ public class BookerController {
      * {@code GET /api/bookers/:id} : Get the "id" booker.
      *
      * @param id The id of the bookerDTO to retrieve.
+     * @param webRequest The request, checked against the {@code ETag} of the booker.
      *
-     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the bookerDTO, or with status {@code 404 (Not Found)}.
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the bookerDTO, or with status {@code 404 (Not Found)},
+     *      or with status {@code 304 (Not Modified)} if the booker is unchanged since the {@code If-None-Match} version.
      */
     @GetMapping("/bookers/{id}")
     @ApiOperation(value = "Search a booker with an ID", response = Booker.class)
-    public ResponseEntity<BookerDTO> get(@PathVariable(value = "id") Long id) {
+    public ResponseEntity<BookerDTO> get(@PathVariable(value = "id") Long id, WebRequest webRequest) {
         LOG.info("REST request to get Booker: {}", id);
 
+        if (tableVersions.checkNotModified(webRequest, ChangeEventDTO.EntityType.BOOKER)) {
+            return null;
+        }
+
         Optional<BookerDTO> bookerDTO = bookerService.find(id);
 
         return ResponseUtil.wrapOrNotFound(bookerDTO);
@@ -0,0 +1,72 @@
+package apricot.workshopsystem.entityservice.controller;
+
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
+import apricot.workshopsystem.entityservice.service.ChangeEventService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@Api(value = "change-service")
+public class ChangeEventController {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeEventController.class);
+    private static final int MAX_LIMIT = 1000;
+    private static final long MAX_WAIT_MILLIS = 60000;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    /**
+     * {@code GET /api/changes} : Get the changes committed after a sequence number, waiting for one if there is none yet.
+     *
+     * @param after The last sequence number seen by the caller.
+     * @param limit The maximum number of changes to return.
+     * @param wait The maximum time in milliseconds to wait for a change, 0 to return immediately.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of changes in sequence order in body,
+     *      or with status {@code 410 (Gone)} if changes after the sequence number have been purged.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @GetMapping("/changes")
+    @ApiOperation(value = "List the changes after a sequence number", response = ChangeEventDTO.class, responseContainer = "List")
+    public ResponseEntity<List<ChangeEventDTO>> getAfter(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                         @RequestParam(value = "limit", defaultValue = "500") int limit,
+                                                         @RequestParam(value = "wait", defaultValue = "0") long wait) throws InterruptedException {
+        LOG.debug("REST request to get Changes after: {}", after);
+
+        if (after < changeEventService.purgedUpTo()) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Changes after " + after + " have been purged, reload required");
+        }
+
+        if (wait > 0) {
+            changeEventService.awaitAfter(after, Math.min(wait, MAX_WAIT_MILLIS));
+        }
+
+        return ResponseEntity.ok(changeEventService.findAfter(after, Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    /**
+     * {@code GET /api/changes/head} : Get the sequence number of the last sequenced change.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the sequence number in body.
+     */
+    @GetMapping("/changes/head")
+    @ApiOperation(value = "Get the last sequence number", response = Long.class)
+    public ResponseEntity<Long> getHead() {
+        return ResponseEntity.ok(changeEventService.head());
+    }
+}
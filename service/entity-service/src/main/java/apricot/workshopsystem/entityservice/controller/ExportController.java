@@ -0,0 +1,173 @@
+package apricot.workshopsystem.entityservice.controller;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import apricot.workshopsystem.entityservice.service.BookerService;
+import apricot.workshopsystem.entityservice.service.ReservationService;
+import apricot.workshopsystem.entityservice.service.RoomService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Full-table exports as newline-delimited JSON, one entity per line.
+ *
+ * <p>The entities are read from a database cursor and written straight to the response, so memory stays constant
+ * whatever the size of the table. An interrupted export is resumed with the id of the last line received.</p>
+ *
+ * <p>Clients that prefer {@code application/cbor-seq} get the entities as a sequence of CBOR items instead, which is
+ * more compact and faster to parse.</p>
+ */
+@RestController
+@RequestMapping(value = "/api", produces = {ExportController.APPLICATION_NDJSON_VALUE, ExportController.APPLICATION_CBOR_SEQ_VALUE})
+@Api(value = "export-service")
+public class ExportController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+    private static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+    private static final Logger LOG = LoggerFactory.getLogger(ExportController.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private BookerService bookerService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    /**
+     * {@code GET /api/export/bookers} : Export the bookers ordered by id.
+     *
+     * @param after The id of the last booker already received, 0 to export all of them.
+     * @param accept The accepted media types.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the bookers as newline-delimited JSON or as a CBOR
+     *      sequence in body.
+     */
+    @GetMapping("/export/bookers")
+    @ApiOperation(value = "Export all bookers as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportBookers(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        LOG.info("REST request to export Bookers after: {}", after);
+
+        return stream(accept, BookerDTO.class, consumer -> bookerService.exportAfter(after, consumer));
+    }
+
+    /**
+     * {@code GET /api/export/rooms} : Export the rooms ordered by id.
+     *
+     * @param after The id of the last room already received, 0 to export all of them.
+     * @param accept The accepted media types.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the rooms as newline-delimited JSON or as a CBOR
+     *      sequence in body.
+     */
+    @GetMapping("/export/rooms")
+    @ApiOperation(value = "Export all rooms as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportRooms(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        LOG.info("REST request to export Rooms after: {}", after);
+
+        return stream(accept, RoomDTO.class, consumer -> roomService.exportAfter(after, consumer));
+    }
+
+    /**
+     * {@code GET /api/export/reservations} : Export the reservations ordered by id.
+     *
+     * @param after The id of the last reservation already received, 0 to export all of them.
+     * @param accept The accepted media types.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the reservations as newline-delimited JSON or as a CBOR
+     *      sequence in body.
+     */
+    @GetMapping("/export/reservations")
+    @ApiOperation(value = "Export all reservations as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportReservations(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        LOG.info("REST request to export Reservations after: {}", after);
+
+        return stream(accept, ReservationDTO.class, consumer -> reservationService.exportAfter(after, consumer));
+    }
+
+    private <T> ResponseEntity<StreamingResponseBody> stream(final String accept, final Class<T> type, final Consumer<Consumer<T>> export) {
+        boolean cbor = prefersCborSequence(accept);
+        // CBOR items follow each other without separator, JSON values are one per line
+        byte[] separator = cbor ? new byte[0] : new byte[] {'\n'};
+        ObjectWriter writer = (cbor ? cborHttpMessageConverter.getObjectMapper() : objectMapper).writerFor(type)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+            try {
+                export.accept(dto -> {
+                    try {
+                        writer.writeValue(out, dto);
+                        out.write(separator);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+
+        return ResponseEntity.ok().contentType(cbor ? APPLICATION_CBOR_SEQ : APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * @return true if the CBOR sequence is accepted with a higher quality than newline-delimited JSON.
+     */
+    private static boolean prefersCborSequence(final String accept) {
+        if (accept == null) {
+            return false;
+        }
+
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.equalsTypeAndSubtype(APPLICATION_CBOR_SEQ)) {
+                return true;
+            }
+            if (type.includes(APPLICATION_NDJSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
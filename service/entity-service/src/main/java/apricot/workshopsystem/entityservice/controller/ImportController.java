@@ -0,0 +1,101 @@
+package apricot.workshopsystem.entityservice.controller;
+
+import apricot.workshopsystem.common.dto.ImportReportDTO;
+import apricot.workshopsystem.entityservice.service.ImportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@Api(value = "import-service")
+public class ImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    private static final Logger LOG = LoggerFactory.getLogger(ImportController.class);
+
+    @Autowired
+    private ImportService importService;
+
+    /**
+     * {@code POST /api/import/rooms} : Create rooms from CSV or newline-delimited JSON rows.
+     *
+     * @param contentType The format of the rows, {@code text/csv} or {@code application/x-ndjson}.
+     * @param input The rows, one per line. CSV rows start with a header line.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report listing the rejected rows.
+     *
+     * @throws IOException if the request body can not be read.
+     */
+    @PostMapping(value = "/import/rooms", consumes = {TEXT_CSV_VALUE, ExportController.APPLICATION_NDJSON_VALUE})
+    @ApiOperation(value = "Import rooms")
+    public ResponseEntity<ImportReportDTO> importRooms(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                       InputStream input) throws IOException {
+        LOG.info("REST request to import Rooms as {}", contentType);
+
+        return ResponseEntity.ok(importService.importRooms(input, format(contentType)));
+    }
+
+    /**
+     * {@code POST /api/import/bookers} : Create bookers from CSV or newline-delimited JSON rows.
+     *
+     * @param contentType The format of the rows, {@code text/csv} or {@code application/x-ndjson}.
+     * @param input The rows, one per line. CSV rows start with a header line.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report listing the rejected rows.
+     *
+     * @throws IOException if the request body can not be read.
+     */
+    @PostMapping(value = "/import/bookers", consumes = {TEXT_CSV_VALUE, ExportController.APPLICATION_NDJSON_VALUE})
+    @ApiOperation(value = "Import bookers")
+    public ResponseEntity<ImportReportDTO> importBookers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                         InputStream input) throws IOException {
+        LOG.info("REST request to import Bookers as {}", contentType);
+
+        return ResponseEntity.ok(importService.importBookers(input, format(contentType)));
+    }
+
+    /**
+     * {@code POST /api/import/reservations} : Create reservations from CSV or newline-delimited JSON rows.
+     *
+     * @param contentType The format of the rows, {@code text/csv} or {@code application/x-ndjson}.
+     * @param input The rows, one per line. CSV rows start with a header line.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report listing the rejected rows.
+     *
+     * @throws IOException if the request body can not be read.
+     */
+    @PostMapping(value = "/import/reservations", consumes = {TEXT_CSV_VALUE, ExportController.APPLICATION_NDJSON_VALUE})
+    @ApiOperation(value = "Import reservations")
+    public ResponseEntity<ImportReportDTO> importReservations(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                              InputStream input) throws IOException {
+        LOG.info("REST request to import Reservations as {}", contentType);
+
+        return ResponseEntity.ok(importService.importReservations(input, format(contentType)));
+    }
+
+    private static ImportService.Format format(final MediaType contentType) {
+        if (MediaType.valueOf(TEXT_CSV_VALUE).includes(contentType)) {
+            return ImportService.Format.CSV;
+        }
+
+        if (MediaType.valueOf(ExportController.APPLICATION_NDJSON_VALUE).includes(contentType)) {
+            return ImportService.Format.NDJSON;
+        }
+
+        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported import format: " + contentType);
+    }
+}
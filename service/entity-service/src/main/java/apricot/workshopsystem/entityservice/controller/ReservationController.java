@@ -1,11 +1,14 @@
 package apricot.workshopsystem.entityservice.controller;
 
+import apricot.workshopsystem.common.dto.ReservationBatchResultDTO;
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
 import apricot.workshopsystem.common.dto.ReservationDTO;
 import apricot.workshopsystem.common.webutil.HeaderUtil;
 import apricot.workshopsystem.common.webutil.PaginationUtil;
 import apricot.workshopsystem.common.webutil.ResponseUtil;
 import apricot.workshopsystem.entityservice.model.dao.Reservation;
 import apricot.workshopsystem.entityservice.service.ReservationService;
+import apricot.workshopsystem.entityservice.version.TableVersions;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
@@ -13,43 +16,76 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @RestController
-@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @Api(value = "reservation-service")
 public class ReservationController {
     private static final Logger LOG = LoggerFactory.getLogger(ReservationController.class);
     private static final String ENTITY_NAME = "reservation";
     private static final String APPLICATION_NAME = "reservation-service";
+    private static final int MAX_BATCH_SIZE = 1000;
 
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private TableVersions tableVersions;
+
     /**
      * {@code GET /api/reservations} : Get all the reservations.
      *
+     * <p>With {@code after} the reservations are paginated by id (keyset pagination): the {@code next} link carries the id of
+     * the last reservation, deep pages cost the same as the first one and no count query is run unless requested.</p>
+     *
      * @param pageable The pagination information.
+     * @param after The id of the last reservation of the previous page, 0 for the first page, or null for offset pagination.
+     * @param count How {@code X-Total-Count} is computed with keyset pagination: {@code exact}, {@code estimate} or {@code none}.
+     * @param webRequest The request, checked against the {@code ETag} of the page.
      *
-     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of reservations in body.
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of reservations in body,
+     *      or with status {@code 304 (Not Modified)} if the reservations are unchanged since the {@code If-None-Match} version.
      */
     @GetMapping("/reservations")
     @ApiOperation(value = "List all reservations", response = Reservation.class, responseContainer = "List")
-    public ResponseEntity<List<ReservationDTO>> getAll(final Pageable pageable) {
+    public ResponseEntity<List<ReservationDTO>> getAll(final Pageable pageable,
+                                                       @RequestParam(value = "after", required = false) Long after,
+                                                       @RequestParam(value = "count", defaultValue = "none") String count,
+                                                       WebRequest webRequest) {
         LOG.info("REST request to get all Reservations");
 
+        if (tableVersions.checkNotModified(webRequest, ChangeEventDTO.EntityType.RESERVATION)) {
+            return null;
+        }
+
+        if (after != null) {
+            PaginationUtil.CountMode countMode = PaginationUtil.CountMode.parse(count);
+            Slice<ReservationDTO> slice = reservationService.findAllAfter(after, pageable.getPageSize());
+            Long totalCount = PaginationUtil.totalCount(countMode, reservationService::count, reservationService::estimateCount);
+            HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice,
+                    ReservationDTO::getId, totalCount);
+
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+
         Page<ReservationDTO> page = reservationService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
 
@@ -60,26 +96,79 @@ public class ReservationController {
      * {@code GET /api/reservations/:id} : Get the "id" reservation.
      *
      * @param id The id of the reservationDTO to retrieve.
+     * @param webRequest The request, checked against the {@code ETag} of the reservation.
      *
-     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the reservationDTO, or with status {@code 404 (Not Found)}.
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the reservationDTO, or with status {@code 404 (Not Found)},
+     *      or with status {@code 304 (Not Modified)} if the reservation is unchanged since the {@code If-None-Match} version.
      */
     @GetMapping("/reservations/{id}")
     @ApiOperation(value = "Search a reservation with an ID", response = Reservation.class)
-    public ResponseEntity<ReservationDTO> get(@PathVariable(value = "id") Long id) {
+    public ResponseEntity<ReservationDTO> get(@PathVariable(value = "id") Long id, WebRequest webRequest) {
         LOG.info("REST request to get Reservation: {}", id);
 
+        if (tableVersions.checkNotModified(webRequest, ChangeEventDTO.EntityType.RESERVATION)) {
+            return null;
+        }
+
         Optional<ReservationDTO> reservationDTO = reservationService.find(id);
 
         return ResponseUtil.wrapOrNotFound(reservationDTO);
     }
 
+    /**
+     * {@code GET /api/rooms/:id/reservations} : Get the reservations of the "id" room overlapping with a time range.
+     *
+     * @param id The id of the room.
+     * @param from The start of the time range.
+     * @param to The end of the time range.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of reservations ordered by start time in body,
+     *      or with status {@code 400 (Bad Request)} if the time range is not valid.
+     */
+    @GetMapping("/rooms/{id}/reservations")
+    @ApiOperation(value = "List the reservations of a room in a time range", response = Reservation.class, responseContainer = "List")
+    public ResponseEntity<List<ReservationDTO>> getByRoom(@PathVariable(value = "id") Long id,
+                                                          @RequestParam("from") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                          @RequestParam("to") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to) {
+        LOG.info("REST request to get Reservations of Room: {} between {} and {}", id, from, to);
+
+        validateRange(from, to);
+
+        return ResponseEntity.ok(reservationService.findOverlapping(id, from, to));
+    }
+
+    /**
+     * {@code GET /api/rooms/:id/free} : Check if the "id" room has no reservation overlapping with a time range.
+     *
+     * @param id The id of the room.
+     * @param from The start of the time range.
+     * @param to The end of the time range.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and true in body if the room is free,
+     *      or with status {@code 400 (Bad Request)} if the time range is not valid.
+     */
+    @GetMapping("/rooms/{id}/free")
+    @ApiOperation(value = "Check if a room is free in a time range", response = Boolean.class)
+    public ResponseEntity<Boolean> isFree(@PathVariable(value = "id") Long id,
+                                          @RequestParam("from") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam("to") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to) {
+        LOG.info("REST request to check Room: {} between {} and {}", id, from, to);
+
+        validateRange(from, to);
+
+        return ResponseEntity.ok(reservationService.isFree(id, from, to));
+    }
+
     /**
      * {@code POST /reservations} : Create a new reservation.
      *
      * @param reservationDTO The reservationDTO to create.
      *
+     * <p>Checked like {@code POST /reservations/reserve}: a room is never double booked.</p>
+     *
      * @return The {@link ResponseEntity} with status {@code 201 (Created)} and with body the new reservationDTO,
-     *      or with status {@code 400 (Bad Request)} if the reservation has already an ID.
+     *      or with status {@code 400 (Bad Request)} if the reservation has already an ID or is not valid,
+     *      or with status {@code 409 (Conflict)} if the room is busy.
      *
      * @throws ResponseStatusException if the requested data is invalid.
      */
@@ -92,20 +181,86 @@ public class ReservationController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Id must be null to create a new Reservation: " + reservationDTO);
         }
 
-        ReservationDTO result = reservationService.save(reservationDTO);
+        validateRange(reservationDTO.getStartDateTime(), reservationDTO.getEndDateTime());
+
+        ReservationDTO result = reservationService.reserve(reservationDTO);
+
+        return ResponseEntity.created(new URI("/api/reservations/" + result.getId()))
+                .headers(HeaderUtil.createEntityCreationAlert(APPLICATION_NAME, true, ENTITY_NAME, result.getId().toString()))
+                .body(result);
+    }
+
+    /**
+     * {@code POST /reservations/reserve} : Create a new reservation if the room is free.
+     *
+     * <p>The overlap check and the insert run in one transaction, serialized per room, so concurrent requests can never
+     * double book a room whichever instance of reservation-service they come from.</p>
+     *
+     * @param reservationDTO The reservationDTO to create.
+     *
+     * @return The {@link ResponseEntity} with status {@code 201 (Created)} and with body the new reservationDTO,
+     *      or with status {@code 400 (Bad Request)} if the reservation is not valid or the room or the booker does not exist,
+     *      or with status {@code 409 (Conflict)} if the room is busy.
+     *
+     * @throws ResponseStatusException if the requested data is invalid.
+     */
+    @PostMapping("/reservations/reserve")
+    @ApiOperation(value = "Reserve a room if it is free")
+    public ResponseEntity<ReservationDTO> reserve(@Valid @RequestBody ReservationDTO reservationDTO)
+            throws ResponseStatusException, URISyntaxException {
+        LOG.info("REST request to reserve: {}", reservationDTO);
+
+        if (reservationDTO.getId() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Id must be null to create a new Reservation: " + reservationDTO);
+        }
+
+        validateRange(reservationDTO.getStartDateTime(), reservationDTO.getEndDateTime());
+
+        ReservationDTO result = reservationService.reserve(reservationDTO);
 
         return ResponseEntity.created(new URI("/api/reservations/" + result.getId()))
                 .headers(HeaderUtil.createEntityCreationAlert(APPLICATION_NAME, true, ENTITY_NAME, result.getId().toString()))
                 .body(result);
     }
 
+    /**
+     * {@code POST /reservations/reserve/batch} : Create many reservations at once, each one only if its room is free.
+     *
+     * @param reservations The reservationDTOs to create.
+     * @param atomic True to create nothing if any reservation is rejected.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each reservation,
+     *      or with status {@code 409 (Conflict)} if an atomic batch was rejected,
+     *      or with status {@code 400 (Bad Request)} if the batch is empty or too large.
+     *
+     * @throws ResponseStatusException if the requested data is invalid.
+     */
+    @PostMapping("/reservations/reserve/batch")
+    @ApiOperation(value = "Reserve many rooms at once")
+    public ResponseEntity<ReservationBatchResultDTO> reserveAll(@RequestBody List<ReservationDTO> reservations,
+                                                                @RequestParam(value = "atomic", defaultValue = "false") boolean atomic)
+            throws ResponseStatusException {
+        LOG.info("REST request to reserve {} reservations, atomic={}", reservations.size(), atomic);
+
+        if (reservations.isEmpty() || reservations.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+
+        ReservationBatchResultDTO result = reservationService.reserveAll(reservations, atomic);
+
+        return ResponseEntity.status(result.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
+    }
+
     /**
      * {@code PUT /reservations} : Updates an existing reservation.
      *
+     * <p>The new slot is checked like in {@code POST /reservations/reserve}, against the other reservations of the room.</p>
+     *
      * @param reservationDTO The reservationDTO to update.
      *
      * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated reservationDTO,
      *      or with status {@code 400 (Bad Request)} if the reservationDTO is not valid,
+     *      or with status {@code 409 (Conflict)} if the room is busy,
      *      or with status {@code 500 (Internal Server Error)} if the reservationDTO couldn't be updated.
      *
      * @throws ResponseStatusException if the requested data is invalid.
@@ -122,7 +277,9 @@ public class ReservationController {
         reservationService.find(reservationDTO.getId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Reservation not found with id: " + reservationDTO.getId()));
 
-        ReservationDTO result = reservationService.save(reservationDTO);
+        validateRange(reservationDTO.getStartDateTime(), reservationDTO.getEndDateTime());
+
+        ReservationDTO result = reservationService.reserve(reservationDTO);
 
         return ResponseEntity.ok()
                 .headers(HeaderUtil.createEntityUpdateAlert(APPLICATION_NAME, true, ENTITY_NAME, reservationDTO.getId().toString()))
@@ -150,4 +307,14 @@ public class ReservationController {
         return ResponseEntity.noContent()
                 .headers(HeaderUtil.createEntityDeletionAlert(APPLICATION_NAME, true, ENTITY_NAME, id.toString())).build();
     }
+
+    private static void validateRange(final LocalDateTime from, final LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From and To are required: from=" + from + ", to=" + to);
+        }
+
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must be before To: from=" + from + ", to=" + to);
+        }
+    }
 }
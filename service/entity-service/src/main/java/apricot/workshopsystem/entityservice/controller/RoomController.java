@@ -1,11 +1,13 @@
 package apricot.workshopsystem.entityservice.controller;
 
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
 import apricot.workshopsystem.common.dto.RoomDTO;
 import apricot.workshopsystem.common.webutil.HeaderUtil;
 import apricot.workshopsystem.common.webutil.PaginationUtil;
 import apricot.workshopsystem.common.webutil.ResponseUtil;
 import apricot.workshopsystem.entityservice.model.dao.Room;
 import apricot.workshopsystem.entityservice.service.RoomService;
+import apricot.workshopsystem.entityservice.version.TableVersions;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.slf4j.Logger;
@@ -13,11 +15,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -28,7 +32,7 @@ import java.util.List;
 import java.util.Optional;
 
 @RestController
-@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @Api(value = "room-service")
 public class RoomController {
     private static final Logger LOG = LoggerFactory.getLogger(RoomController.class);
@@ -38,18 +42,45 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private TableVersions tableVersions;
+
     /**
      * {@code GET /api/rooms} : Get all the rooms.
      *
+     * <p>With {@code after} the rooms are paginated by id (keyset pagination): the {@code next} link carries the id of
+     * the last room, deep pages cost the same as the first one and no count query is run unless requested.</p>
+     *
      * @param pageable The pagination information.
+     * @param after The id of the last room of the previous page, 0 for the first page, or null for offset pagination.
+     * @param count How {@code X-Total-Count} is computed with keyset pagination: {@code exact}, {@code estimate} or {@code none}.
+     * @param webRequest The request, checked against the {@code ETag} of the page.
      *
-     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of rooms in body.
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the list of rooms in body,
+     *      or with status {@code 304 (Not Modified)} if the rooms are unchanged since the {@code If-None-Match} version.
      */
     @GetMapping("/rooms")
     @ApiOperation(value = "List all rooms", response = Room.class, responseContainer = "List")
-    public ResponseEntity<List<RoomDTO>> getAll(final Pageable pageable) {
+    public ResponseEntity<List<RoomDTO>> getAll(final Pageable pageable,
+                                                @RequestParam(value = "after", required = false) Long after,
+                                                @RequestParam(value = "count", defaultValue = "none") String count,
+                                                WebRequest webRequest) {
         LOG.info("REST request to get all Rooms");
 
+        if (tableVersions.checkNotModified(webRequest, ChangeEventDTO.EntityType.ROOM)) {
+            return null;
+        }
+
+        if (after != null) {
+            PaginationUtil.CountMode countMode = PaginationUtil.CountMode.parse(count);
+            Slice<RoomDTO> slice = roomService.findAllAfter(after, pageable.getPageSize());
+            Long totalCount = PaginationUtil.totalCount(countMode, roomService::count, roomService::estimateCount);
+            HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice,
+                    RoomDTO::getId, totalCount);
+
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+
         Page<RoomDTO> page = roomService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
 
@@ -60,14 +91,20 @@ public class RoomController {
      * {@code GET /api/rooms/:id} : Get the "id" room.
      *
      * @param id The id of the roomDTO to retrieve.
+     * @param webRequest The request, checked against the {@code ETag} of the room.
      *
-     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the roomDTO, or with status {@code 404 (Not Found)}.
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and with body the roomDTO, or with status {@code 404 (Not Found)},
+     *      or with status {@code 304 (Not Modified)} if the room is unchanged since the {@code If-None-Match} version.
      */
     @GetMapping("/rooms/{id}")
     @ApiOperation(value = "Search a room with an ID", response = Room.class)
-    public ResponseEntity<RoomDTO> get(@PathVariable(value = "id") Long id) {
+    public ResponseEntity<RoomDTO> get(@PathVariable(value = "id") Long id, WebRequest webRequest) {
         LOG.info("REST request to get Room: {}", id);
 
+        if (tableVersions.checkNotModified(webRequest, ChangeEventDTO.EntityType.ROOM)) {
+            return null;
+        }
+
         Optional<RoomDTO> roomDTO = roomService.find(id);
 
         return ResponseUtil.wrapOrNotFound(roomDTO);
@@ -0,0 +1,60 @@
+package apricot.workshopsystem.entityservice.endpoint;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/entitycache} : Hit and miss counts of the Hibernate second-level cache, per region and for the
+ * query cache. Available when {@code workshop.entity-cache.enabled} is true.
+ */
+@Component
+@Endpoint(id = "entitycache")
+@ConditionalOnProperty(name = "workshop.entity-cache.enabled", havingValue = "true")
+public class EntityCacheEndpoint {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EntityCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                Map<String, Object> counts = counts(region.getHitCount(), region.getMissCount(), region.getPutCount());
+                counts.put("size", region.getElementCountInMemory());
+                regions.put(regionName, counts);
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCache", counts(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static Map<String, Object> counts(final long hits, final long misses, final long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRatio", (hits + misses == 0) ? 0.0 : (double) hits / (hits + misses));
+        return counts;
+    }
+}
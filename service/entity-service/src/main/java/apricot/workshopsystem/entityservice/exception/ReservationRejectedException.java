@@ -0,0 +1,46 @@
+package apricot.workshopsystem.entityservice.exception;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a reservation can not be made, see {@link Reason}.
+ */
+public class ReservationRejectedException extends RuntimeException {
+    private final Reason reason;
+    private final ReservationDTO conflict;
+
+    public ReservationRejectedException(Reason reason, String message) {
+        this(reason, message, null);
+    }
+
+    public ReservationRejectedException(Reason reason, String message, ReservationDTO conflict) {
+        super(message);
+        this.reason = reason;
+        this.conflict = conflict;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public ReservationDTO getConflict() {
+        return conflict;
+    }
+
+    public enum Reason {
+        ROOM_NOT_FOUND(HttpStatus.BAD_REQUEST),
+        BOOKER_NOT_FOUND(HttpStatus.BAD_REQUEST),
+        CONFLICT(HttpStatus.CONFLICT);
+
+        private final HttpStatus status;
+
+        Reason(HttpStatus status) {
+            this.status = status;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package apricot.workshopsystem.entityservice.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @ControllerAdvice
@@ -32,4 +34,12 @@ public class RestErrorHandler {
 
         return new RestError(HttpStatus.BAD_REQUEST, ex.getMessage(), errorList);
     }
+
+    @ExceptionHandler(ReservationRejectedException.class)
+    @ResponseBody
+    public ResponseEntity<RestError> handleReservationRejectedException(ReservationRejectedException ex, WebRequest request) {
+        HttpStatus status = ex.getReason().getStatus();
+
+        return new ResponseEntity<>(new RestError(status, ex.getMessage(), Collections.emptyList()), status);
+    }
 }
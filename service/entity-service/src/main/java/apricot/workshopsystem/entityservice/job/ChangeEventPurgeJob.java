@@ -0,0 +1,29 @@
+package apricot.workshopsystem.entityservice.job;
+
+import apricot.workshopsystem.entityservice.service.ChangeEventService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes change feed entries older than the retention period. Consumers that fall further behind get
+ * {@code 410 (Gone)} and have to reload.
+ */
+@Component
+public class ChangeEventPurgeJob {
+    private final ChangeEventService changeEventService;
+    private final long retentionHours;
+
+    public ChangeEventPurgeJob(ChangeEventService changeEventService,
+                               @Value("${workshop.change-feed.retention-hours:72}") long retentionHours) {
+        this.changeEventService = changeEventService;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.change-feed.purge-interval-ms:3600000}")
+    public void purge() {
+        changeEventService.purge(LocalDateTime.now().minusHours(retentionHours));
+    }
+}
@@ -0,0 +1,23 @@
+package apricot.workshopsystem.entityservice.job;
+
+import apricot.workshopsystem.entityservice.service.ChangeEventService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Numbers the committed change events left without a sequence number, e.g. by an instance that stopped right after a
+ * commit. Events are normally numbered as soon as their transaction commits.
+ */
+@Component
+public class ChangeEventSequenceJob {
+    private final ChangeEventService changeEventService;
+
+    public ChangeEventSequenceJob(ChangeEventService changeEventService) {
+        this.changeEventService = changeEventService;
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.change-feed.sequence-interval-ms:5000}")
+    public void sequence() {
+        changeEventService.sequencePending();
+    }
+}
@@ -0,0 +1,47 @@
+package apricot.workshopsystem.entityservice.job;
+
+import apricot.workshopsystem.entityservice.service.ReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves the reservations that ended before the retention period to the {@code reservation_archive} table, in chunks
+ * of one transaction each, so the hot reservation table and its indexes only hold bookings that can still conflict.
+ */
+@Component
+public class ReservationArchiveJob {
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationArchiveJob.class);
+
+    private final ReservationService reservationService;
+    private final long retentionDays;
+    private final int chunkSize;
+
+    public ReservationArchiveJob(ReservationService reservationService,
+                                 @Value("${workshop.reservation-archive.retention-days:90}") long retentionDays,
+                                 @Value("${workshop.reservation-archive.chunk-size:1000}") int chunkSize) {
+        this.reservationService = reservationService;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.reservation-archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+
+        long total = 0;
+        int archived;
+        do {
+            archived = reservationService.archive(before, chunkSize);
+            total += archived;
+        } while (archived == chunkSize);
+
+        if (total > 0) {
+            LOG.info("Archived {} reservations ended before {}", total, before);
+        }
+    }
+}
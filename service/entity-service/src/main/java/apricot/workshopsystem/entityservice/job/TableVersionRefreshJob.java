@@ -0,0 +1,23 @@
+package apricot.workshopsystem.entityservice.job;
+
+import apricot.workshopsystem.entityservice.version.TableVersions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Advances the table versions behind the ETags to the changes numbered by other instances. The changes numbered by this
+ * instance advance them at once.
+ */
+@Component
+public class TableVersionRefreshJob {
+    private final TableVersions tableVersions;
+
+    public TableVersionRefreshJob(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.change-feed.poll-interval-ms:500}")
+    public void refresh() {
+        tableVersions.refresh();
+    }
+}
@@ -0,0 +1,79 @@
+package apricot.workshopsystem.entityservice.metrics;
+
+import brave.Span;
+import brave.Tracer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instruments every call of a Spring Data repository, named after the repository interface and the method.
+ *
+ * <p>The call is timed as {@code repository.invocations}, tagged with the repository, the method and the exception
+ * thrown, if any, and published through actuator, e.g. on {@code /actuator/prometheus}. It is also recorded as a span,
+ * so the time spent in the database shows up in the trace of a request.</p>
+ *
+ * <p>Streaming queries are timed until the stream is opened, not until it is consumed.</p>
+ */
+@Aspect
+@Component
+public class RepositoryInstrumentationAspect {
+    private static final String REPOSITORY_PACKAGE = "apricot.workshopsystem.entityservice.repository";
+
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public RepositoryInstrumentationAspect(MeterRegistry meterRegistry, Tracer tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object instrument(final ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryName(joinPoint.getTarget());
+        String method = joinPoint.getSignature().getName();
+        Span span = tracer.nextSpan()
+                .name(repository + "." + method)
+                .tag("repository", repository)
+                .start();
+        long start = System.nanoTime();
+        String exception = "none";
+
+        try (Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            span.error(e);
+            throw e;
+        } finally {
+            Timer.builder("repository.invocations")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            span.finish();
+        }
+    }
+
+    private String repositoryName(final Object repository) {
+        return repositoryNames.computeIfAbsent(repository.getClass(), type -> {
+            // the repository is a proxy, its name is the one of the interface declared in this service
+            for (Class<?> candidate : AopProxyUtils.proxiedUserInterfaces(repository)) {
+                if (candidate.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return candidate.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
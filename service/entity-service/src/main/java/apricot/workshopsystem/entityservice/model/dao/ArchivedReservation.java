@@ -0,0 +1,32 @@
+package apricot.workshopsystem.entityservice.model.dao;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A past reservation moved out of the {@code reservation} table by the archive job, so the reservation table only
+ * holds the bookings that can still conflict with new ones. The id is the one of the original reservation.
+ */
+@Data
+@Entity
+@Table(name = "reservation_archive", indexes = {
+        @Index(name = "idx_reservation_archive_room_time", columnList = "roomId, startDateTime")})
+public class ArchivedReservation {
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column
+    private long roomId;
+
+    @Column
+    private long bookerId;
+
+    @Column(name = "startDateTime", columnDefinition = "TIMESTAMP")
+    private LocalDateTime startDateTime;
+
+    @Column(name = "endDateTime", columnDefinition = "TIMESTAMP")
+    private LocalDateTime endDateTime;
+}
@@ -1,6 +1,8 @@
 package apricot.workshopsystem.entityservice.model.dao;
 
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -10,9 +12,12 @@ import javax.validation.constraints.NotEmpty;
 @Data
 @Entity
 @Table(name = "booker")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Booker {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booker_seq")
+    @SequenceGenerator(name = "booker_seq", sequenceName = "booker_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is mandatory")
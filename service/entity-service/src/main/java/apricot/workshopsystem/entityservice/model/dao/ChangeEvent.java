@@ -0,0 +1,52 @@
+package apricot.workshopsystem.entityservice.model.dao;
+
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An entry of the change feed. It is written with the change it records, without a sequence number: numbers are assigned
+ * once the change is committed, see {@link ChangeSequence}.
+ *
+ * <p>Committed events are numbered in publication order. The publication number is drawn once per publishing call,
+ * after the rows of the change are locked, so a conflicting change committed later always gets a larger one. Ids are
+ * pooled and only order the events of one call.</p>
+ */
+@Data
+@Entity
+@Table(name = "change_event")
+public class ChangeEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_event_seq")
+    @SequenceGenerator(name = "change_event_seq", sequenceName = "change_event_seq", allocationSize = 50)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "publication", updatable = false, nullable = false)
+    private long publication;
+
+    @Column(name = "sequence_number", unique = true)
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeEventDTO.EntityType entityType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChangeEventDTO.Operation operation;
+
+    @Column
+    private long entityId;
+
+    @Lob
+    private String state;
+
+    @Lob
+    private String previousState;
+
+    @Column(name = "createdAt", columnDefinition = "TIMESTAMP")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package apricot.workshopsystem.entityservice.model.dao;
+
+import lombok.Data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Guard row of the change feed. Sequence numbers are only assigned to committed change events, in a short transaction
+ * of their own holding this row, so a number is never handed out before a smaller one is visible. Transactions making
+ * changes never lock it.
+ */
+@Data
+@Entity
+@Table(name = "change_sequence")
+public class ChangeSequence {
+    public static final String CHANGE_EVENT = "change_event";
+
+    @Id
+    private String name;
+
+    @Column
+    private long lastSequence;
+
+    @Column
+    private long purgedUpTo;
+}
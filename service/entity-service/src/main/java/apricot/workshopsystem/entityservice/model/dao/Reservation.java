@@ -8,10 +8,13 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "reservation")
+@Table(name = "reservation", indexes = {
+        @Index(name = "idx_reservation_room_time", columnList = "roomId, startDateTime, endDateTime"),
+        @Index(name = "idx_reservation_end", columnList = "endDateTime")})
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
@@ -0,0 +1,19 @@
+package apricot.workshopsystem.entityservice.repository;
+
+import apricot.workshopsystem.entityservice.model.dao.ArchivedReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+    @Modifying
+    @Query("insert into ArchivedReservation (id, roomId, bookerId, startDateTime, endDateTime)"
+            + " select r.id, r.roomId, r.bookerId, r.startDateTime, r.endDateTime from Reservation r where r.id in :ids")
+    int copyFromReservations(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,30 @@
+package apricot.workshopsystem.entityservice.repository;
+
+import apricot.workshopsystem.entityservice.model.dao.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    List<ChangeEvent> findBySequenceGreaterThanOrderBySequenceAsc(long after, Pageable pageable);
+
+    List<ChangeEvent> findBySequenceIsNullOrderByPublicationAscIdAsc(Pageable pageable);
+
+    @Query("select e.entityType, max(e.sequence) from ChangeEvent e where e.sequence > :after group by e.entityType")
+    List<Object[]> findLastSequences(@Param("after") long after);
+
+    Optional<ChangeEvent> findFirstBySequenceNotNullAndCreatedAtBeforeOrderBySequenceDesc(LocalDateTime before);
+
+    @Modifying
+    @Query("delete from ChangeEvent e where e.sequence <= :sequence")
+    int deleteUpTo(@Param("sequence") long sequence);
+}
@@ -0,0 +1,22 @@
+package apricot.workshopsystem.entityservice.repository;
+
+import apricot.workshopsystem.entityservice.model.dao.ChangeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface ChangeSequenceRepository extends JpaRepository<ChangeSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ChangeSequence s where s.name = :name")
+    Optional<ChangeSequence> findForUpdate(@Param("name") String name);
+
+    @Query("select s.lastSequence from ChangeSequence s where s.name = :name")
+    Optional<Long> findLastSequence(@Param("name") String name);
+}
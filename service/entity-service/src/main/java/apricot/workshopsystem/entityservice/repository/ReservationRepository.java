@@ -1,9 +1,53 @@
 package apricot.workshopsystem.entityservice.repository;
 
 import apricot.workshopsystem.entityservice.model.dao.Reservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    @Query("select r from Reservation r where r.roomId = :roomId and r.startDateTime <= :to and r.endDateTime >= :from"
+            + " order by r.startDateTime")
+    List<Reservation> findOverlapping(@Param("roomId") long roomId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    Optional<Reservation> findFirstByRoomIdAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqualOrderByStartDateTime(
+            long roomId, LocalDateTime to, LocalDateTime from);
+
+    Optional<Reservation> findFirstByRoomIdAndIdNotAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqualOrderByStartDateTime(
+            long roomId, long id, LocalDateTime to, LocalDateTime from);
+
+    boolean existsByRoomIdAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqual(long roomId, LocalDateTime to, LocalDateTime from);
+
+    Slice<Reservation> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query(value = "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES where TABLE_SCHEMA = SCHEMA() and TABLE_NAME = 'RESERVATION'",
+            nativeQuery = true)
+    long estimateCount();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select r from Reservation r where r.id > :after order by r.id")
+    Stream<Reservation> streamAfter(@Param("after") long after);
+
+    @Query("select r.id from Reservation r where r.endDateTime < :before order by r.id")
+    List<Long> findIdsEndedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Reservation r where r.id in :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
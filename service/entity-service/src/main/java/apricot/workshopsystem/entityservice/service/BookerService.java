@@ -3,8 +3,11 @@ package apricot.workshopsystem.entityservice.service;
 import apricot.workshopsystem.common.dto.BookerDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service Interface for managing {@link apricot.workshopsystem.entityservice.model.dao.Booker}.
@@ -27,6 +30,37 @@ public interface BookerService {
      */
     Page<BookerDTO> findAll(final Pageable pageable);
 
+    /**
+     * Get the bookers following a cursor, ordered by id. No count query is run.
+     *
+     * @param after the id of the last booker of the previous slice, 0 for the first slice.
+     * @param size the maximum number of entities.
+     * @return the slice of entities.
+     */
+    Slice<BookerDTO> findAllAfter(final long after, final int size);
+
+    /**
+     * Count the bookers.
+     *
+     * @return the exact number of entities.
+     */
+    long count();
+
+    /**
+     * Estimate the number of bookers from the table statistics of the database, without scanning the table.
+     *
+     * @return the estimated number of entities.
+     */
+    long estimateCount();
+
+    /**
+     * Pass every booker following a cursor to a consumer, ordered by id, reading them from a database cursor.
+     *
+     * @param after the id of the last booker already exported, 0 to export all of them.
+     * @param consumer the consumer of the entities.
+     */
+    void exportAfter(final long after, final Consumer<BookerDTO> consumer);
+
     /**
      * Save a booker.
      *
@@ -35,6 +69,14 @@ public interface BookerService {
      */
     BookerDTO save(final BookerDTO bookerDTO);
 
+    /**
+     * Create bookers in one transaction, inserted in JDBC batches.
+     *
+     * @param bookerDTOs the entities to create, without id.
+     * @return the persisted entities, in the same order.
+     */
+    List<BookerDTO> createAll(final List<BookerDTO> bookerDTOs);
+
     /**
      * Delete the "id" booker.
      *
@@ -1,17 +1,26 @@
 package apricot.workshopsystem.entityservice.service;
 
 import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
 import apricot.workshopsystem.entityservice.mapper.BookerMapper;
 import apricot.workshopsystem.entityservice.model.dao.Booker;
 import apricot.workshopsystem.entityservice.repository.BookerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -19,10 +28,15 @@ public class BookerServiceImpl implements BookerService {
     private static final Logger LOG = LoggerFactory.getLogger(BookerServiceImpl.class);
     private final BookerRepository bookerRepository;
     private final BookerMapper bookerMapper;
+    private final ChangeEventService changeEventService;
+    private final EntityManager entityManager;
 
-    public BookerServiceImpl(BookerRepository bookerRepository, BookerMapper bookerMapper) {
+    public BookerServiceImpl(BookerRepository bookerRepository, BookerMapper bookerMapper, ChangeEventService changeEventService,
+                             EntityManager entityManager) {
         this.bookerRepository = bookerRepository;
         this.bookerMapper = bookerMapper;
+        this.changeEventService = changeEventService;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -53,6 +67,63 @@ public class BookerServiceImpl implements BookerService {
         return bookerRepository.findAll(pageable).map(bookerMapper::toDto);
     }
 
+    /**
+     * Get the bookers following a cursor, ordered by id.
+     *
+     * @param after the id of the last booker of the previous slice, 0 for the first slice.
+     * @param size the maximum number of entities.
+     * @return the slice of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookerDTO> findAllAfter(final long after, final int size) {
+        LOG.debug("Request to get Bookers after : {}", after);
+
+        return bookerRepository.findByIdGreaterThan(after, PageRequest.of(0, size, Sort.by("id"))).map(bookerMapper::toDto);
+    }
+
+    /**
+     * Count the bookers.
+     *
+     * @return the exact number of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long count() {
+        return bookerRepository.count();
+    }
+
+    /**
+     * Estimate the number of bookers from the table statistics of the database.
+     *
+     * @return the estimated number of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        return bookerRepository.estimateCount();
+    }
+
+    /**
+     * Pass every booker following a cursor to a consumer, ordered by id.
+     *
+     * @param after the id of the last booker already exported, 0 to export all of them.
+     * @param consumer the consumer of the entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAfter(final long after, final Consumer<BookerDTO> consumer) {
+        LOG.debug("Request to export Bookers after : {}", after);
+
+        try (Stream<Booker> bookers = bookerRepository.streamAfter(after)) {
+            bookers.forEach(booker -> {
+                consumer.accept(bookerMapper.toDto(booker));
+                // the persistence context must not grow with the table
+                entityManager.detach(booker);
+            });
+        }
+    }
+
     /**
      * Save a booker.
      *
@@ -63,12 +134,33 @@ public class BookerServiceImpl implements BookerService {
     public BookerDTO save(final BookerDTO bookerDTO) {
         LOG.debug("Request to save Booker : {}", bookerDTO);
 
+        ChangeEventDTO.Operation operation = (bookerDTO.getId() == null) ? ChangeEventDTO.Operation.CREATED : ChangeEventDTO.Operation.UPDATED;
+
         Booker booker = bookerMapper.toEntity(bookerDTO);
         booker = bookerRepository.save(booker);
 
+        changeEventService.publish(ChangeEventDTO.EntityType.BOOKER, operation, booker.getId());
+
         return bookerMapper.toDto(booker);
     }
 
+    /**
+     * Create bookers in one transaction.
+     *
+     * @param bookerDTOs the entities to create, without id.
+     * @return the persisted entities, in the same order.
+     */
+    @Override
+    public List<BookerDTO> createAll(final List<BookerDTO> bookerDTOs) {
+        LOG.debug("Request to create {} Bookers", bookerDTOs.size());
+
+        List<Booker> bookers = bookerRepository.saveAll(bookerMapper.toEntity(bookerDTOs));
+        changeEventService.publishAll(ChangeEventDTO.EntityType.BOOKER, ChangeEventDTO.Operation.CREATED,
+                bookers.stream().map(Booker::getId).collect(Collectors.toList()));
+
+        return bookerMapper.toDto(bookers);
+    }
+
     /**
      * Delete the booker by id.
      *
@@ -79,5 +171,7 @@ public class BookerServiceImpl implements BookerService {
         LOG.debug("Request to delete Booker : {}", id);
 
         bookerRepository.deleteById(id);
+
+        changeEventService.publish(ChangeEventDTO.EntityType.BOOKER, ChangeEventDTO.Operation.DELETED, id);
     }
 }
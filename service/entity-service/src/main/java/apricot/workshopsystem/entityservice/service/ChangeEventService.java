@@ -0,0 +1,99 @@
+package apricot.workshopsystem.entityservice.service;
+
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service Interface for managing the change feed, see {@link apricot.workshopsystem.entityservice.model.dao.ChangeEvent}.
+ */
+public interface ChangeEventService {
+
+    /**
+     * Publish a change of a room or a booker, or an archived batch of reservations. Must be called within the transaction
+     * making the change.
+     *
+     * @param entityType the type of the changed entity.
+     * @param operation the change.
+     * @param entityId the id of the changed entity.
+     */
+    void publish(final ChangeEventDTO.EntityType entityType, final ChangeEventDTO.Operation operation, final long entityId);
+
+    /**
+     * Publish the same change of many rooms or bookers, with one round trip for the whole batch. Must be called within
+     * the transaction making the changes.
+     *
+     * @param entityType the type of the changed entities.
+     * @param operation the change.
+     * @param entityIds the ids of the changed entities.
+     */
+    void publishAll(final ChangeEventDTO.EntityType entityType, final ChangeEventDTO.Operation operation, final Collection<Long> entityIds);
+
+    /**
+     * Publish a change of a reservation. Must be called within the transaction making the change.
+     *
+     * @param operation the change.
+     * @param reservation the reservation after the change, null if deleted.
+     * @param previousReservation the reservation before the change, null if created.
+     */
+    void publishReservation(final ChangeEventDTO.Operation operation, final ReservationDTO reservation, final ReservationDTO previousReservation);
+
+    /**
+     * Publish the creation of many reservations, with one round trip for the whole batch. Must be called within the
+     * transaction creating them.
+     *
+     * @param reservations the created reservations.
+     */
+    void publishCreatedReservations(final List<ReservationDTO> reservations);
+
+    /**
+     * Get the changes committed after a sequence number.
+     *
+     * @param after the last sequence number seen by the caller.
+     * @param limit the maximum number of changes to return.
+     * @return the changes in sequence order.
+     */
+    List<ChangeEventDTO> findAfter(final long after, final int limit);
+
+    /**
+     * Get the sequence number of the last sequenced change, as stored in the database, so every instance agrees on it.
+     *
+     * @return the sequence number, 0 if nothing has been published yet.
+     */
+    long head();
+
+    /**
+     * Assign sequence numbers to the committed changes that have none yet, in the order they were published.
+     *
+     * @return the number of sequenced changes.
+     */
+    int sequencePending();
+
+    /**
+     * Get the sequence number up to which changes have been purged.
+     *
+     * @return the sequence number, callers behind it have missed changes.
+     */
+    long purgedUpTo();
+
+    /**
+     * Wait until a change after the given sequence number is sequenced, by this instance or another one.
+     *
+     * @param after the last sequence number seen by the caller.
+     * @param timeoutMillis the maximum time to wait.
+     * @return true if a newer change is available.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    boolean awaitAfter(final long after, final long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Delete the changes published before a point in time.
+     *
+     * @param before the retention limit.
+     * @return the number of deleted changes.
+     */
+    int purge(final LocalDateTime before);
+}
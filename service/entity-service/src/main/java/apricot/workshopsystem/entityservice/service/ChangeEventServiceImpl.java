@@ -0,0 +1,403 @@
+package apricot.workshopsystem.entityservice.service;
+
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.entityservice.model.dao.ChangeEvent;
+import apricot.workshopsystem.entityservice.model.dao.ChangeSequence;
+import apricot.workshopsystem.entityservice.repository.ChangeEventRepository;
+import apricot.workshopsystem.entityservice.repository.ChangeSequenceRepository;
+import apricot.workshopsystem.entityservice.version.TableVersions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Change events are written by the transaction making the change, without a sequence number and without any shared
+ * lock, so writes to different rooms never wait for each other. Once committed, they are numbered by a sequencer in a
+ * transaction of its own: triggered right after the commit on this instance, and by
+ * {@link apricot.workshopsystem.entityservice.job.ChangeEventSequenceJob} for the events of instances that stopped
+ * before numbering theirs. The head of the feed is read from the database, so every instance serves the same feed.
+ */
+@Service
+@Transactional
+public class ChangeEventServiceImpl implements ChangeEventService {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeEventServiceImpl.class);
+    private static final String SEQUENCE_NAME = ChangeSequence.CHANGE_EVENT;
+    private static final int SEQUENCE_BATCH_SIZE = 500;
+    private static final String ID_SEQUENCE_NAME = "change_event_seq";
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeSequenceRepository changeSequenceRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TableVersions tableVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollIntervalMillis;
+    private final ExecutorService sequencer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-event-sequencer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean sequencingRequested = new AtomicBoolean();
+    private String nextPublicationSql;
+    private final Object monitor = new Object();
+    private long wakeUps;
+
+    public ChangeEventServiceImpl(ChangeEventRepository changeEventRepository, ChangeSequenceRepository changeSequenceRepository,
+                                  ObjectMapper objectMapper, EntityManager entityManager, TableVersions tableVersions,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${workshop.change-feed.poll-interval-ms:500}") long pollIntervalMillis) {
+        this.changeEventRepository = changeEventRepository;
+        this.changeSequenceRepository = changeSequenceRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.tableVersions = tableVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        nextPublicationSql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceNextValString(ID_SEQUENCE_NAME);
+
+        if (changeSequenceRepository.findById(SEQUENCE_NAME).isEmpty()) {
+            ChangeSequence created = new ChangeSequence();
+            created.setName(SEQUENCE_NAME);
+            changeSequenceRepository.save(created);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sequencer.shutdownNow();
+    }
+
+    /**
+     * Publish a change of a room or a booker.
+     *
+     * @param entityType the type of the changed entity.
+     * @param operation the change.
+     * @param entityId the id of the changed entity.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(final ChangeEventDTO.EntityType entityType, final ChangeEventDTO.Operation operation, final long entityId) {
+        appendAll(List.of(event(entityType, operation, entityId)));
+    }
+
+    /**
+     * Publish the same change of many rooms or bookers.
+     *
+     * @param entityType the type of the changed entities.
+     * @param operation the change.
+     * @param entityIds the ids of the changed entities.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(final ChangeEventDTO.EntityType entityType, final ChangeEventDTO.Operation operation,
+                           final Collection<Long> entityIds) {
+        appendAll(entityIds.stream()
+                .map(entityId -> event(entityType, operation, entityId))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Publish a change of a reservation.
+     *
+     * @param operation the change.
+     * @param reservation the reservation after the change, null if deleted.
+     * @param previousReservation the reservation before the change, null if created.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishReservation(final ChangeEventDTO.Operation operation, final ReservationDTO reservation,
+                                   final ReservationDTO previousReservation) {
+        appendAll(List.of(reservationEvent(operation, reservation, previousReservation)));
+    }
+
+    /**
+     * Publish the creation of many reservations.
+     *
+     * @param reservations the created reservations.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishCreatedReservations(final List<ReservationDTO> reservations) {
+        appendAll(reservations.stream()
+                .map(reservation -> reservationEvent(ChangeEventDTO.Operation.CREATED, reservation, null))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Get the changes committed after a sequence number.
+     *
+     * @param after the last sequence number seen by the caller.
+     * @param limit the maximum number of changes to return.
+     * @return the changes in sequence order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChangeEventDTO> findAfter(final long after, final int limit) {
+        LOG.debug("Request to get Changes after : {}", after);
+
+        return changeEventRepository.findBySequenceGreaterThanOrderBySequenceAsc(after, PageRequest.of(0, limit)).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long head() {
+        return changeSequenceRepository.findLastSequence(SEQUENCE_NAME).orElse(0L);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long purgedUpTo() {
+        return changeSequenceRepository.findById(SEQUENCE_NAME).map(ChangeSequence::getPurgedUpTo).orElse(0L);
+    }
+
+    /**
+     * Assign sequence numbers to the committed changes that have none yet, in the order they were published.
+     *
+     * @return the number of sequenced changes.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int sequencePending() {
+        // the tables marked pending up to now are committed, their changes are numbered below
+        long mark = tableVersions.mark();
+        int sequenced = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> sequenceBatch());
+            sequenced += batch;
+        } while (batch == SEQUENCE_BATCH_SIZE);
+
+        tableVersions.sequenced(mark);
+
+        if (sequenced > 0) {
+            synchronized (monitor) {
+                wakeUps++;
+                monitor.notifyAll();
+            }
+        }
+
+        return sequenced;
+    }
+
+    /**
+     * Wait until a change after the given sequence number is sequenced, by this instance or another one.
+     *
+     * <p>Waiters are woken up when this instance sequences changes, and check the head in the database at least every
+     * {@code workshop.change-feed.poll-interval-ms} for the changes sequenced by other instances.</p>
+     *
+     * @param after the last sequence number seen by the caller.
+     * @param timeoutMillis the maximum time to wait.
+     * @return true if a newer change is available.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean awaitAfter(final long after, final long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        while (true) {
+            long seenWakeUps;
+            synchronized (monitor) {
+                seenWakeUps = wakeUps;
+            }
+
+            if (head() > after) {
+                return true;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+
+            synchronized (monitor) {
+                if (wakeUps == seenWakeUps) {
+                    monitor.wait(Math.min(remaining, pollIntervalMillis));
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete the changes published before a point in time.
+     *
+     * @param before the retention limit.
+     * @return the number of deleted changes.
+     */
+    @Override
+    public int purge(final LocalDateTime before) {
+        Optional<ChangeEvent> last = changeEventRepository.findFirstBySequenceNotNullAndCreatedAtBeforeOrderBySequenceDesc(before);
+        if (last.isEmpty()) {
+            return 0;
+        }
+
+        ChangeSequence sequence = changeSequenceRepository.findForUpdate(SEQUENCE_NAME).orElseThrow();
+        sequence.setPurgedUpTo(last.get().getSequence());
+        changeSequenceRepository.save(sequence);
+
+        int deleted = changeEventRepository.deleteUpTo(last.get().getSequence());
+        LOG.info("Purged {} changes up to sequence {}", deleted, last.get().getSequence());
+
+        return deleted;
+    }
+
+    private ChangeEvent event(final ChangeEventDTO.EntityType entityType, final ChangeEventDTO.Operation operation, final long entityId) {
+        ChangeEvent event = new ChangeEvent();
+        event.setEntityType(entityType);
+        event.setOperation(operation);
+        event.setEntityId(entityId);
+        return event;
+    }
+
+    private ChangeEvent reservationEvent(final ChangeEventDTO.Operation operation, final ReservationDTO reservation,
+                                         final ReservationDTO previousReservation) {
+        ChangeEvent event = event(ChangeEventDTO.EntityType.RESERVATION, operation,
+                (reservation != null) ? reservation.getId() : previousReservation.getId());
+        event.setState(write(reservation));
+        event.setPreviousState(write(previousReservation));
+        return event;
+    }
+
+    private void appendAll(final List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // the rows of the change are locked before the publication number is drawn, so a conflicting change committed
+        // later always gets a larger one and is sequenced after this one
+        entityManager.flush();
+
+        long publication = ((Number) entityManager.createNativeQuery(nextPublicationSql).getSingleResult()).longValue();
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (ChangeEvent event : events) {
+            event.setPublication(publication);
+            event.setCreatedAt(createdAt);
+        }
+        // ids come from the pool of the sequence, the events are inserted in JDBC batches
+        changeEventRepository.saveAll(events);
+
+        LOG.debug("Published {} changes with publication {}", events.size(), publication);
+
+        // one synchronization per transaction, however many changes it publishes
+        SequencingRequest request = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization instanceof SequencingRequest)
+                .map(SequencingRequest.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    SequencingRequest created = new SequencingRequest();
+                    TransactionSynchronizationManager.registerSynchronization(created);
+                    return created;
+                });
+        events.forEach(event -> request.tables.add(event.getEntityType()));
+    }
+
+    private void requestSequencing() {
+        // one pending run sequences the events of every transaction committed before it starts
+        if (sequencingRequested.compareAndSet(false, true)) {
+            sequencer.execute(() -> {
+                sequencingRequested.set(false);
+                try {
+                    sequencePending();
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not sequence changes, retrying on the next run: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private int sequenceBatch() {
+        // events are read after the guard row is locked, so none committed before the lock can be skipped
+        ChangeSequence sequence = changeSequenceRepository.findForUpdate(SEQUENCE_NAME).orElseThrow();
+        List<ChangeEvent> pending = changeEventRepository.findBySequenceIsNullOrderByPublicationAscIdAsc(PageRequest.of(0, SEQUENCE_BATCH_SIZE));
+
+        long next = sequence.getLastSequence();
+        for (ChangeEvent event : pending) {
+            event.setSequence(++next);
+        }
+        sequence.setLastSequence(next);
+
+        return pending.size();
+    }
+
+    private ChangeEventDTO toDto(final ChangeEvent event) {
+        ChangeEventDTO dto = new ChangeEventDTO();
+        dto.setSequence(event.getSequence());
+        dto.setEntityType(event.getEntityType());
+        dto.setOperation(event.getOperation());
+        dto.setEntityId(event.getEntityId());
+        dto.setReservation(read(event.getState()));
+        dto.setPreviousReservation(read(event.getPreviousState()));
+        return dto;
+    }
+
+    private String write(final ReservationDTO reservation) {
+        if (reservation == null) {
+            return null;
+        }
+
+        try {
+            return objectMapper.writeValueAsString(reservation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize reservation: " + reservation, e);
+        }
+    }
+
+    private ReservationDTO read(final String state) {
+        if (state == null) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(state, ReservationDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not deserialize reservation: " + state, e);
+        }
+    }
+
+    /**
+     * Requests a sequencing run once the transaction that published changes commits, after marking the changed tables
+     * as pending.
+     */
+    private class SequencingRequest extends TransactionSynchronizationAdapter {
+        private final Set<ChangeEventDTO.EntityType> tables = EnumSet.noneOf(ChangeEventDTO.EntityType.class);
+
+        @Override
+        public void afterCommit() {
+            tableVersions.changed(tables);
+            requestSequencing();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package apricot.workshopsystem.entityservice.service;
+
+import apricot.workshopsystem.common.dto.ImportReportDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Service Interface for bulk imports of {@link apricot.workshopsystem.entityservice.model.dao.Room},
+ * {@link apricot.workshopsystem.entityservice.model.dao.Booker} and {@link apricot.workshopsystem.entityservice.model.dao.Reservation}.
+ */
+public interface ImportService {
+
+    /**
+     * Import rooms.
+     *
+     * @param input the rows, one per line.
+     * @param format the format of the rows.
+     * @return the import report.
+     * @throws IOException if the input can not be read.
+     */
+    ImportReportDTO importRooms(final InputStream input, final Format format) throws IOException;
+
+    /**
+     * Import bookers.
+     *
+     * @param input the rows, one per line.
+     * @param format the format of the rows.
+     * @return the import report.
+     * @throws IOException if the input can not be read.
+     */
+    ImportReportDTO importBookers(final InputStream input, final Format format) throws IOException;
+
+    /**
+     * Import reservations. Rows overlapping with existing reservations or with earlier rows are rejected.
+     *
+     * @param input the rows, one per line.
+     * @param format the format of the rows.
+     * @return the import report.
+     * @throws IOException if the input can not be read.
+     */
+    ImportReportDTO importReservations(final InputStream input, final Format format) throws IOException;
+
+    enum Format {
+        /** Comma-separated values with a header line naming the fields. */
+        CSV,
+        /** Newline-delimited JSON, one object per line. */
+        NDJSON
+    }
+}
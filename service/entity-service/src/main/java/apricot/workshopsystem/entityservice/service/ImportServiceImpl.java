@@ -0,0 +1,214 @@
+package apricot.workshopsystem.entityservice.service;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ImportReportDTO;
+import apricot.workshopsystem.common.dto.ReservationBatchResultDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the rows of an import, validates them one by one and persists them in chunks.
+ *
+ * <p>Not transactional itself: every chunk is persisted in its own transaction by the entity services, so a failing
+ * chunk only rejects its own rows and the rest of the load goes on. Only one chunk is held in memory at a time.</p>
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportServiceImpl.class);
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final RoomService roomService;
+    private final BookerService bookerService;
+    private final ReservationService reservationService;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Validator validator;
+    private final int chunkSize;
+
+    public ImportServiceImpl(RoomService roomService, BookerService bookerService, ReservationService reservationService,
+                             ObjectMapper objectMapper, Validator validator,
+                             @Value("${workshop.import.chunk-size:500}") int chunkSize) {
+        this.roomService = roomService;
+        this.bookerService = bookerService;
+        this.reservationService = reservationService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ImportReportDTO importRooms(final InputStream input, final Format format) throws IOException {
+        return importRows("Rooms", input, format, RoomDTO.class, RoomDTO::getId,
+                chunk -> created(chunk.size(), () -> roomService.createAll(chunk)));
+    }
+
+    @Override
+    public ImportReportDTO importBookers(final InputStream input, final Format format) throws IOException {
+        return importRows("Bookers", input, format, BookerDTO.class, BookerDTO::getId,
+                chunk -> created(chunk.size(), () -> bookerService.createAll(chunk)));
+    }
+
+    @Override
+    public ImportReportDTO importReservations(final InputStream input, final Format format) throws IOException {
+        // time ranges, rooms, bookers and overlaps are checked by reserveAll, within the chunk and against the database
+        return importRows("Reservations", input, format, ReservationDTO.class, ReservationDTO::getId, chunk -> {
+            ReservationBatchResultDTO result;
+            try {
+                result = reservationService.reserveAll(chunk, false);
+            } catch (RuntimeException e) {
+                LOG.warn("Could not import reservation chunk: {}", e.getMessage());
+                return Collections.nCopies(chunk.size(), "Chunk failed: " + e.getMessage());
+            }
+
+            return result.getItems().stream()
+                    .map(item -> (item.getStatus() == ReservationBatchResultDTO.Status.CREATED) ? null : item.getStatus() + ": " + item.getMessage())
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private <T> ImportReportDTO importRows(final String name, final InputStream input, final Format format, final Class<T> type,
+                                           final Function<T, Long> id, final Function<List<T>, List<String>> writer) throws IOException {
+        long start = System.nanoTime();
+        ImportReportDTO report = new ImportReportDTO();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ObjectReader reader = (format == Format.NDJSON) ? objectMapper.readerFor(type) : null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (reader == null) {
+                reader = csvReader(type, line);
+                continue;
+            }
+
+            report.setRows(report.getRows() + 1);
+
+            T row;
+            try {
+                row = reader.readValue(line);
+            } catch (JsonProcessingException e) {
+                reject(report, lineNumber, "Malformed row: " + e.getOriginalMessage());
+                continue;
+            }
+
+            String violation = validate(row, id);
+            if (violation != null) {
+                reject(report, lineNumber, violation);
+                continue;
+            }
+
+            chunk.add(row);
+            chunkLines.add(lineNumber);
+            if (chunk.size() == chunkSize) {
+                write(report, chunk, chunkLines, writer);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            write(report, chunk, chunkLines, writer);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond((elapsedNanos == 0) ? 0 : report.getRows() * 1e9 / elapsedNanos);
+
+        LOG.info("Imported {}: rows={}, imported={}, rejected={}, elapsed={} ms, rows/s={}", name, report.getRows(),
+                report.getImported(), report.getRejected(), report.getElapsedMillis(), Math.round(report.getRowsPerSecond()));
+
+        return report;
+    }
+
+    private ObjectReader csvReader(final Class<?> type, final String header) {
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : header.split(",")) {
+            schema.addColumn(column.trim());
+        }
+
+        return csvMapper.readerFor(type).with(schema.build());
+    }
+
+    private <T> String validate(final T row, final Function<T, Long> id) {
+        if (id.apply(row) != null) {
+            return "Id must be null to import a new row";
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private <T> void write(final ImportReportDTO report, final List<T> chunk, final List<Long> chunkLines,
+                           final Function<List<T>, List<String>> writer) {
+        List<String> errors = writer.apply(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors.get(i) == null) {
+                report.setImported(report.getImported() + 1);
+            } else {
+                reject(report, chunkLines.get(i), errors.get(i));
+            }
+        }
+
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private static List<String> created(final int size, final Runnable create) {
+        try {
+            create.run();
+            return Collections.nCopies(size, null);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not import chunk: {}", e.getMessage());
+            return Collections.nCopies(size, "Chunk failed: " + e.getMessage());
+        }
+    }
+
+    private static void reject(final ImportReportDTO report, final long line, final String message) {
+        report.setRejected(report.getRejected() + 1);
+
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            ImportReportDTO.Error error = new ImportReportDTO.Error();
+            error.setLine(line);
+            error.setMessage(message);
+            report.getErrors().add(error);
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+}
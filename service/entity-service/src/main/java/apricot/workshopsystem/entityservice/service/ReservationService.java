@@ -1,10 +1,15 @@
 package apricot.workshopsystem.entityservice.service;
 
+import apricot.workshopsystem.common.dto.ReservationBatchResultDTO;
 import apricot.workshopsystem.common.dto.ReservationDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service Interface for managing {@link apricot.workshopsystem.entityservice.model.dao.Reservation}.
@@ -27,6 +32,57 @@ public interface ReservationService {
      */
     Page<ReservationDTO> findAll(final Pageable pageable);
 
+    /**
+     * Get the reservations following a cursor, ordered by id. No count query is run.
+     *
+     * @param after the id of the last reservation of the previous slice, 0 for the first slice.
+     * @param size the maximum number of entities.
+     * @return the slice of entities.
+     */
+    Slice<ReservationDTO> findAllAfter(final long after, final int size);
+
+    /**
+     * Count the reservations.
+     *
+     * @return the exact number of entities.
+     */
+    long count();
+
+    /**
+     * Estimate the number of reservations from the table statistics of the database, without scanning the table.
+     *
+     * @return the estimated number of entities.
+     */
+    long estimateCount();
+
+    /**
+     * Pass every reservation following a cursor to a consumer, ordered by id, reading them from a database cursor.
+     *
+     * @param after the id of the last reservation already exported, 0 to export all of them.
+     * @param consumer the consumer of the entities.
+     */
+    void exportAfter(final long after, final Consumer<ReservationDTO> consumer);
+
+    /**
+     * Get the reservations of a room overlapping with a time range.
+     *
+     * @param roomId the id of the room.
+     * @param from the start of the range.
+     * @param to the end of the range.
+     * @return the list of entities ordered by start time.
+     */
+    List<ReservationDTO> findOverlapping(final long roomId, final LocalDateTime from, final LocalDateTime to);
+
+    /**
+     * Check if a room has no reservation overlapping with a time range.
+     *
+     * @param roomId the id of the room.
+     * @param from the start of the range.
+     * @param to the end of the range.
+     * @return true if the room is free.
+     */
+    boolean isFree(final long roomId, final LocalDateTime from, final LocalDateTime to);
+
     /**
      * Save a reservation.
      *
@@ -35,6 +91,40 @@ public interface ReservationService {
      */
     ReservationDTO save(final ReservationDTO reservationDTO);
 
+    /**
+     * Reserve a room: check that the room and the booker exist and that the room is free, then save the reservation,
+     * all in one transaction. Concurrent reservations of the same room are serialized on the room row. A reservation
+     * with an id is moved to its new room and time, it is only checked against the other reservations.
+     *
+     * @param reservationDTO the entity to save.
+     * @return the persisted entity.
+     * @throws apricot.workshopsystem.entityservice.exception.ReservationRejectedException if the reservation can not be made.
+     */
+    ReservationDTO reserve(final ReservationDTO reservationDTO);
+
+    /**
+     * Reserve many rooms at once. Every reservation is checked like in {@link #reserve(ReservationDTO)}, against the
+     * stored reservations and against the other reservations of the batch, and the accepted ones are inserted in
+     * JDBC batches.
+     *
+     * @param reservations the entities to save.
+     * @param atomic true to save nothing if any reservation is rejected.
+     * @return the result of each reservation, in request order.
+     */
+    ReservationBatchResultDTO reserveAll(final List<ReservationDTO> reservations, final boolean atomic);
+
+    /**
+     * Move reservations that ended before a point in time to the archive table, oldest id first.
+     *
+     * <p>Archived reservations are not published one by one on the change feed, consumers drop past reservations
+     * themselves. Each batch publishes a single reservation event without state and with entity id 0.</p>
+     *
+     * @param before the retention limit.
+     * @param limit the maximum number of reservations to move in this transaction.
+     * @return the number of archived reservations.
+     */
+    int archive(final LocalDateTime before, final int limit);
+
     /**
      * Delete the "id" reservation.
      *
@@ -1,28 +1,62 @@
 package apricot.workshopsystem.entityservice.service;
 
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
+import apricot.workshopsystem.common.dto.ReservationBatchResultDTO;
 import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.util.TimeUtil;
+import apricot.workshopsystem.entityservice.exception.ReservationRejectedException;
 import apricot.workshopsystem.entityservice.mapper.ReservationMapper;
+import apricot.workshopsystem.entityservice.model.dao.Booker;
 import apricot.workshopsystem.entityservice.model.dao.Reservation;
+import apricot.workshopsystem.entityservice.repository.ArchivedReservationRepository;
+import apricot.workshopsystem.entityservice.repository.BookerRepository;
 import apricot.workshopsystem.entityservice.repository.ReservationRepository;
+import apricot.workshopsystem.entityservice.repository.RoomRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ReservationServiceImpl implements ReservationService {
     private static final Logger LOG = LoggerFactory.getLogger(ReservationServiceImpl.class);
     private final ReservationRepository reservationRepository;
+    private final ArchivedReservationRepository archivedReservationRepository;
+    private final RoomRepository roomRepository;
+    private final BookerRepository bookerRepository;
     private final ReservationMapper reservationMapper;
+    private final ChangeEventService changeEventService;
+    private final EntityManager entityManager;
 
-    public ReservationServiceImpl(ReservationRepository reservationRepository, ReservationMapper reservationMapper) {
+    public ReservationServiceImpl(ReservationRepository reservationRepository, ArchivedReservationRepository archivedReservationRepository,
+                                  RoomRepository roomRepository, BookerRepository bookerRepository, ReservationMapper reservationMapper,
+                                  ChangeEventService changeEventService, EntityManager entityManager) {
         this.reservationRepository = reservationRepository;
+        this.archivedReservationRepository = archivedReservationRepository;
+        this.roomRepository = roomRepository;
+        this.bookerRepository = bookerRepository;
         this.reservationMapper = reservationMapper;
+        this.changeEventService = changeEventService;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -53,6 +87,95 @@ public class ReservationServiceImpl implements ReservationService {
         return reservationRepository.findAll(pageable).map(reservationMapper::toDto);
     }
 
+    /**
+     * Get the reservations following a cursor, ordered by id.
+     *
+     * @param after the id of the last reservation of the previous slice, 0 for the first slice.
+     * @param size the maximum number of entities.
+     * @return the slice of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ReservationDTO> findAllAfter(final long after, final int size) {
+        LOG.debug("Request to get Reservations after : {}", after);
+
+        return reservationRepository.findByIdGreaterThan(after, PageRequest.of(0, size, Sort.by("id"))).map(reservationMapper::toDto);
+    }
+
+    /**
+     * Count the reservations.
+     *
+     * @return the exact number of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long count() {
+        return reservationRepository.count();
+    }
+
+    /**
+     * Estimate the number of reservations from the table statistics of the database.
+     *
+     * @return the estimated number of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        return reservationRepository.estimateCount();
+    }
+
+    /**
+     * Pass every reservation following a cursor to a consumer, ordered by id.
+     *
+     * @param after the id of the last reservation already exported, 0 to export all of them.
+     * @param consumer the consumer of the entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAfter(final long after, final Consumer<ReservationDTO> consumer) {
+        LOG.debug("Request to export Reservations after : {}", after);
+
+        try (Stream<Reservation> reservations = reservationRepository.streamAfter(after)) {
+            reservations.forEach(reservation -> {
+                consumer.accept(reservationMapper.toDto(reservation));
+                // the persistence context must not grow with the table
+                entityManager.detach(reservation);
+            });
+        }
+    }
+
+    /**
+     * Get the reservations of a room overlapping with a time range.
+     *
+     * @param roomId the id of the room.
+     * @param from the start of the range.
+     * @param to the end of the range.
+     * @return the list of entities ordered by start time.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReservationDTO> findOverlapping(final long roomId, final LocalDateTime from, final LocalDateTime to) {
+        LOG.debug("Request to get Reservations of Room : {} between {} and {}", roomId, from, to);
+
+        return reservationMapper.toDto(reservationRepository.findOverlapping(roomId, from, to));
+    }
+
+    /**
+     * Check if a room has no reservation overlapping with a time range.
+     *
+     * @param roomId the id of the room.
+     * @param from the start of the range.
+     * @param to the end of the range.
+     * @return true if the room is free.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isFree(final long roomId, final LocalDateTime from, final LocalDateTime to) {
+        LOG.debug("Request to check Room : {} between {} and {}", roomId, from, to);
+
+        return !reservationRepository.existsByRoomIdAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqual(roomId, to, from);
+    }
+
     /**
      * Save a reservation.
      *
@@ -63,10 +186,129 @@ public class ReservationServiceImpl implements ReservationService {
     public ReservationDTO save(final ReservationDTO reservationDTO) {
         LOG.debug("Request to save Reservation : {}", reservationDTO);
 
+        ReservationDTO previous = (reservationDTO.getId() == null)
+                ? null : reservationRepository.findById(reservationDTO.getId()).map(reservationMapper::toDto).orElse(null);
+
         Reservation reservation = reservationMapper.toEntity(reservationDTO);
         reservation = reservationRepository.save(reservation);
 
-        return reservationMapper.toDto(reservation);
+        ReservationDTO result = reservationMapper.toDto(reservation);
+        changeEventService.publishReservation((previous == null) ? ChangeEventDTO.Operation.CREATED : ChangeEventDTO.Operation.UPDATED,
+                result, previous);
+
+        return result;
+    }
+
+    /**
+     * Reserve a room if it is free, or move an existing reservation if its new slot is free.
+     *
+     * @param reservationDTO the entity to save.
+     * @return the persisted entity.
+     */
+    @Override
+    public ReservationDTO reserve(final ReservationDTO reservationDTO) {
+        LOG.debug("Request to reserve : {}", reservationDTO);
+
+        // the room row is the guard of its reservations: it stays locked until commit
+        roomRepository.findForUpdate(reservationDTO.getRoomId())
+                .orElseThrow(() -> new ReservationRejectedException(ReservationRejectedException.Reason.ROOM_NOT_FOUND,
+                        "Room with id not exists: " + reservationDTO.getRoomId()));
+
+        if (!bookerRepository.existsById(reservationDTO.getBookerId())) {
+            throw new ReservationRejectedException(ReservationRejectedException.Reason.BOOKER_NOT_FOUND,
+                    "Booker with id not exists: " + reservationDTO.getBookerId());
+        }
+
+        // a moved reservation does not conflict with its own previous slot
+        Optional<ReservationDTO> conflict = ((reservationDTO.getId() == null)
+                ? reservationRepository.findFirstByRoomIdAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqualOrderByStartDateTime(
+                        reservationDTO.getRoomId(), reservationDTO.getEndDateTime(), reservationDTO.getStartDateTime())
+                : reservationRepository.findFirstByRoomIdAndIdNotAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqualOrderByStartDateTime(
+                        reservationDTO.getRoomId(), reservationDTO.getId(), reservationDTO.getEndDateTime(), reservationDTO.getStartDateTime()))
+                .map(reservationMapper::toDto);
+
+        if (conflict.isPresent()) {
+            throw new ReservationRejectedException(ReservationRejectedException.Reason.CONFLICT,
+                    "Reservation time is not suitable for room (busy): " + reservationDTO + ", conflicts with: " + conflict.get(),
+                    conflict.get());
+        }
+
+        return save(reservationDTO);
+    }
+
+    /**
+     * Reserve many rooms at once.
+     *
+     * @param reservations the entities to save.
+     * @param atomic true to save nothing if any reservation is rejected.
+     * @return the result of each reservation, in request order.
+     */
+    @Override
+    public ReservationBatchResultDTO reserveAll(final List<ReservationDTO> reservations, final boolean atomic) {
+        LOG.debug("Request to reserve {} reservations, atomic={}", reservations.size(), atomic);
+
+        // rooms are locked in id order, so concurrent batches can not deadlock
+        Set<Long> roomIds = new TreeSet<>();
+        reservations.forEach(reservation -> roomIds.add(reservation.getRoomId()));
+        Set<Long> existingRooms = new TreeSet<>();
+        roomIds.forEach(roomId -> roomRepository.findForUpdate(roomId).ifPresent(room -> existingRooms.add(room.getId())));
+
+        Set<Long> bookerIds = reservations.stream().map(ReservationDTO::getBookerId).collect(Collectors.toSet());
+        Set<Long> existingBookers = bookerRepository.findAllById(bookerIds).stream().map(Booker::getId).collect(Collectors.toSet());
+
+        ReservationBatchResultDTO result = new ReservationBatchResultDTO();
+        Map<Long, List<ReservationDTO>> accepted = new HashMap<>();
+        List<ReservationBatchResultDTO.Item> acceptedItems = new ArrayList<>();
+        boolean rejected = false;
+
+        for (int i = 0; i < reservations.size(); i++) {
+            ReservationDTO reservation = reservations.get(i);
+            ReservationBatchResultDTO.Item item = new ReservationBatchResultDTO.Item();
+            item.setIndex(i);
+            item.setReservation(reservation);
+            result.getItems().add(item);
+
+            if (reservation.getId() != null || reservation.getStartDateTime() == null || reservation.getEndDateTime() == null
+                    || reservation.getStartDateTime().isAfter(reservation.getEndDateTime())) {
+                reject(item, ReservationBatchResultDTO.Status.INVALID, "Id must be null and StartDatetime must be before EndDatetime");
+            } else if (!existingRooms.contains(reservation.getRoomId())) {
+                reject(item, ReservationBatchResultDTO.Status.ROOM_NOT_FOUND, "Room with id not exists: " + reservation.getRoomId());
+            } else if (!existingBookers.contains(reservation.getBookerId())) {
+                reject(item, ReservationBatchResultDTO.Status.BOOKER_NOT_FOUND, "Booker with id not exists: " + reservation.getBookerId());
+            } else {
+                Optional<ReservationDTO> conflict = findConflict(reservation, accepted.get(reservation.getRoomId()));
+                if (conflict.isPresent()) {
+                    reject(item, ReservationBatchResultDTO.Status.CONFLICT, "Reservation time is not suitable for room (busy), conflicts with: "
+                            + conflict.get());
+                } else {
+                    accepted.computeIfAbsent(reservation.getRoomId(), k -> new ArrayList<>()).add(reservation);
+                    acceptedItems.add(item);
+                    continue;
+                }
+            }
+
+            rejected = true;
+        }
+
+        if (atomic && rejected) {
+            acceptedItems.forEach(item -> item.setStatus(ReservationBatchResultDTO.Status.NOT_APPLIED));
+            result.setApplied(false);
+            return result;
+        }
+
+        List<Reservation> saved = reservationRepository.saveAll(acceptedItems.stream()
+                .map(item -> reservationMapper.toEntity(item.getReservation()))
+                .collect(Collectors.toList()));
+
+        List<ReservationDTO> created = reservationMapper.toDto(saved);
+        for (int i = 0; i < created.size(); i++) {
+            acceptedItems.get(i).setReservation(created.get(i));
+            acceptedItems.get(i).setStatus(ReservationBatchResultDTO.Status.CREATED);
+        }
+        changeEventService.publishCreatedReservations(created);
+
+        result.setApplied(true);
+        return result;
     }
 
     /**
@@ -78,6 +320,55 @@ public class ReservationServiceImpl implements ReservationService {
     public void delete(final Long id) {
         LOG.debug("Request to delete Reservation : {}", id);
 
+        Optional<ReservationDTO> previous = reservationRepository.findById(id).map(reservationMapper::toDto);
+
         reservationRepository.deleteById(id);
+
+        previous.ifPresent(reservation -> changeEventService.publishReservation(ChangeEventDTO.Operation.DELETED, null, reservation));
+    }
+
+    /**
+     * Move reservations that ended before a point in time to the archive table.
+     *
+     * @param before the retention limit.
+     * @param limit the maximum number of reservations to move in this transaction.
+     * @return the number of archived reservations.
+     */
+    @Override
+    public int archive(final LocalDateTime before, final int limit) {
+        List<Long> ids = reservationRepository.findIdsEndedBefore(before, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // copied and deleted with two set-based statements, the rows are never loaded as entities
+        archivedReservationRepository.copyFromReservations(ids);
+        int archived = reservationRepository.deleteByIds(ids);
+        // one event without state for the whole batch: consumers ignore it, it only moves the version of the table
+        changeEventService.publish(ChangeEventDTO.EntityType.RESERVATION, ChangeEventDTO.Operation.DELETED, 0L);
+        LOG.debug("Archived {} reservations ended before {}", archived, before);
+
+        return archived;
+    }
+
+    private Optional<ReservationDTO> findConflict(final ReservationDTO reservation, final List<ReservationDTO> acceptedInBatch) {
+        if (acceptedInBatch != null) {
+            for (ReservationDTO other : acceptedInBatch) {
+                if (TimeUtil.overlaps(other.getStartDateTime(), other.getEndDateTime(),
+                        reservation.getStartDateTime(), reservation.getEndDateTime())) {
+                    return Optional.of(other);
+                }
+            }
+        }
+
+        return reservationRepository
+                .findFirstByRoomIdAndStartDateTimeLessThanEqualAndEndDateTimeGreaterThanEqualOrderByStartDateTime(
+                        reservation.getRoomId(), reservation.getEndDateTime(), reservation.getStartDateTime())
+                .map(reservationMapper::toDto);
+    }
+
+    private static void reject(final ReservationBatchResultDTO.Item item, final ReservationBatchResultDTO.Status status, final String message) {
+        item.setStatus(status);
+        item.setMessage(message);
     }
 }
@@ -3,8 +3,11 @@ package apricot.workshopsystem.entityservice.service;
 import apricot.workshopsystem.common.dto.RoomDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service Interface for managing {@link apricot.workshopsystem.entityservice.model.dao.Room}.
@@ -27,6 +30,37 @@ public interface RoomService {
      */
     Page<RoomDTO> findAll(final Pageable pageable);
 
+    /**
+     * Get the rooms following a cursor, ordered by id. No count query is run.
+     *
+     * @param after the id of the last room of the previous slice, 0 for the first slice.
+     * @param size the maximum number of entities.
+     * @return the slice of entities.
+     */
+    Slice<RoomDTO> findAllAfter(final long after, final int size);
+
+    /**
+     * Count the rooms.
+     *
+     * @return the exact number of entities.
+     */
+    long count();
+
+    /**
+     * Estimate the number of rooms from the table statistics of the database, without scanning the table.
+     *
+     * @return the estimated number of entities.
+     */
+    long estimateCount();
+
+    /**
+     * Pass every room following a cursor to a consumer, ordered by id, reading them from a database cursor.
+     *
+     * @param after the id of the last room already exported, 0 to export all of them.
+     * @param consumer the consumer of the entities.
+     */
+    void exportAfter(final long after, final Consumer<RoomDTO> consumer);
+
     /**
      * Save a room.
      *
@@ -35,6 +69,14 @@ public interface RoomService {
      */
     RoomDTO save(final RoomDTO roomDTO);
 
+    /**
+     * Create rooms in one transaction, inserted in JDBC batches.
+     *
+     * @param roomDTOs the entities to create, without id.
+     * @return the persisted entities, in the same order.
+     */
+    List<RoomDTO> createAll(final List<RoomDTO> roomDTOs);
+
     /**
      * Delete the "id" room.
      *
@@ -1,5 +1,6 @@
 package apricot.workshopsystem.entityservice.service;
 
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
 import apricot.workshopsystem.common.dto.RoomDTO;
 import apricot.workshopsystem.entityservice.mapper.RoomMapper;
 import apricot.workshopsystem.entityservice.model.dao.Room;
@@ -7,11 +8,19 @@ import apricot.workshopsystem.entityservice.repository.RoomRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -19,10 +28,15 @@ public class RoomServiceImpl implements RoomService {
     private static final Logger LOG = LoggerFactory.getLogger(RoomServiceImpl.class);
     private final RoomRepository roomRepository;
     private final RoomMapper roomMapper;
+    private final ChangeEventService changeEventService;
+    private final EntityManager entityManager;
 
-    public RoomServiceImpl(RoomRepository roomRepository, RoomMapper roomMapper) {
+    public RoomServiceImpl(RoomRepository roomRepository, RoomMapper roomMapper, ChangeEventService changeEventService,
+                           EntityManager entityManager) {
         this.roomRepository = roomRepository;
         this.roomMapper = roomMapper;
+        this.changeEventService = changeEventService;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -53,6 +67,63 @@ public class RoomServiceImpl implements RoomService {
         return roomRepository.findAll(pageable).map(roomMapper::toDto);
     }
 
+    /**
+     * Get the rooms following a cursor, ordered by id.
+     *
+     * @param after the id of the last room of the previous slice, 0 for the first slice.
+     * @param size the maximum number of entities.
+     * @return the slice of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<RoomDTO> findAllAfter(final long after, final int size) {
+        LOG.debug("Request to get Rooms after : {}", after);
+
+        return roomRepository.findByIdGreaterThan(after, PageRequest.of(0, size, Sort.by("id"))).map(roomMapper::toDto);
+    }
+
+    /**
+     * Count the rooms.
+     *
+     * @return the exact number of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long count() {
+        return roomRepository.count();
+    }
+
+    /**
+     * Estimate the number of rooms from the table statistics of the database.
+     *
+     * @return the estimated number of entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long estimateCount() {
+        return roomRepository.estimateCount();
+    }
+
+    /**
+     * Pass every room following a cursor to a consumer, ordered by id.
+     *
+     * @param after the id of the last room already exported, 0 to export all of them.
+     * @param consumer the consumer of the entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAfter(final long after, final Consumer<RoomDTO> consumer) {
+        LOG.debug("Request to export Rooms after : {}", after);
+
+        try (Stream<Room> rooms = roomRepository.streamAfter(after)) {
+            rooms.forEach(room -> {
+                consumer.accept(roomMapper.toDto(room));
+                // the persistence context must not grow with the table
+                entityManager.detach(room);
+            });
+        }
+    }
+
     /**
      * Save a room.
      *
@@ -63,12 +134,33 @@ public class RoomServiceImpl implements RoomService {
     public RoomDTO save(final RoomDTO roomDTO) {
         LOG.debug("Request to save Room : {}", roomDTO);
 
+        ChangeEventDTO.Operation operation = (roomDTO.getId() == null) ? ChangeEventDTO.Operation.CREATED : ChangeEventDTO.Operation.UPDATED;
+
         Room room = roomMapper.toEntity(roomDTO);
         room = roomRepository.save(room);
 
+        changeEventService.publish(ChangeEventDTO.EntityType.ROOM, operation, room.getId());
+
         return roomMapper.toDto(room);
     }
 
+    /**
+     * Create rooms in one transaction.
+     *
+     * @param roomDTOs the entities to create, without id.
+     * @return the persisted entities, in the same order.
+     */
+    @Override
+    public List<RoomDTO> createAll(final List<RoomDTO> roomDTOs) {
+        LOG.debug("Request to create {} Rooms", roomDTOs.size());
+
+        List<Room> rooms = roomRepository.saveAll(roomMapper.toEntity(roomDTOs));
+        changeEventService.publishAll(ChangeEventDTO.EntityType.ROOM, ChangeEventDTO.Operation.CREATED,
+                rooms.stream().map(Room::getId).collect(Collectors.toList()));
+
+        return roomMapper.toDto(rooms);
+    }
+
     /**
      * Delete the room by id.
      *
@@ -79,5 +171,7 @@ public class RoomServiceImpl implements RoomService {
         LOG.debug("Request to delete Room : {}", id);
 
         roomRepository.deleteById(id);
+
+        changeEventService.publish(ChangeEventDTO.EntityType.ROOM, ChangeEventDTO.Operation.DELETED, id);
     }
 }
@@ -0,0 +1,168 @@
+package apricot.workshopsystem.entityservice.version;
+
+import apricot.workshopsystem.common.dto.ChangeEventDTO.EntityType;
+import apricot.workshopsystem.entityservice.model.dao.ChangeSequence;
+import apricot.workshopsystem.entityservice.repository.ChangeEventRepository;
+import apricot.workshopsystem.entityservice.repository.ChangeSequenceRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+/**
+ * Versions of the booker, room and reservation tables, behind the ETags of their resources.
+ *
+ * <p>The version of a table is the sequence number of the last change feed event of its type. The versions are kept in
+ * memory, so conditional requests are answered without any query: they are advanced by the sequencer of this instance
+ * once it numbered changes, and by {@link apricot.workshopsystem.entityservice.job.TableVersionRefreshJob} for the
+ * changes numbered by other instances. Every instance therefore hands out the same tags, those of other instances
+ * are only seen up to {@code workshop.change-feed.poll-interval-ms} late.</p>
+ *
+ * <p>A change committed by this instance marks its table as pending until it is numbered, and resources of a pending
+ * table are served without ETag, so a client never gets {@code 304 (Not Modified)} for its own write.</p>
+ */
+@Component
+public class TableVersions {
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeSequenceRepository changeSequenceRepository;
+    private final Map<EntityType, Long> versions = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, Long> pendingMarks = new EnumMap<>(EntityType.class);
+    private long lastSequence;
+    private long marks;
+
+    public TableVersions(ChangeEventRepository changeEventRepository, ChangeSequenceRepository changeSequenceRepository) {
+        this.changeEventRepository = changeEventRepository;
+        this.changeSequenceRepository = changeSequenceRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        // tables whose events were all purged start at the purge point, the same on every instance
+        long purgedUpTo = changeSequenceRepository.findById(ChangeSequence.CHANGE_EVENT).map(ChangeSequence::getPurgedUpTo).orElse(0L);
+        synchronized (this) {
+            for (EntityType table : EntityType.values()) {
+                versions.put(table, purgedUpTo);
+            }
+            lastSequence = purgedUpTo;
+        }
+
+        refresh();
+    }
+
+    /**
+     * Get the current version of a table.
+     *
+     * @param table the table.
+     * @return the version, empty if a change of the table committed by this instance is not numbered yet.
+     */
+    public synchronized OptionalLong get(final EntityType table) {
+        return pendingMarks.containsKey(table) ? OptionalLong.empty() : OptionalLong.of(versions.get(table));
+    }
+
+    /**
+     * Mark tables as pending, right after the commit of a transaction that changed them.
+     *
+     * @param tables the changed tables.
+     */
+    public synchronized void changed(final Collection<EntityType> tables) {
+        marks++;
+        for (EntityType table : tables) {
+            pendingMarks.put(table, marks);
+        }
+    }
+
+    /**
+     * Get the last mark, to be read before numbering: the changes of the tables marked up to it are committed.
+     *
+     * @return the mark, to be passed to {@link #sequenced(long)}.
+     */
+    public synchronized long mark() {
+        return marks;
+    }
+
+    /**
+     * Advance the versions after changes were numbered, and clear the tables marked pending up to a mark.
+     *
+     * @param mark the mark read before numbering.
+     */
+    public void sequenced(final long mark) {
+        refresh();
+
+        synchronized (this) {
+            pendingMarks.values().removeIf(pendingMark -> pendingMark <= mark);
+        }
+    }
+
+    /**
+     * Advance the versions to the changes numbered since the last refresh, by this instance or another one.
+     */
+    public void refresh() {
+        long after;
+        synchronized (this) {
+            after = lastSequence;
+        }
+
+        // the head is read first: every change numbered up to it is seen by the second query
+        long head = changeSequenceRepository.findLastSequence(ChangeSequence.CHANGE_EVENT).orElse(0L);
+        if (head <= after) {
+            return;
+        }
+
+        List<Object[]> lastSequences = changeEventRepository.findLastSequences(after);
+        synchronized (this) {
+            for (Object[] row : lastSequences) {
+                versions.merge((EntityType) row[0], (Long) row[1], Math::max);
+            }
+            lastSequence = Math.max(lastSequence, head);
+        }
+    }
+
+    /**
+     * Build the weak ETag of a resource read from a table, at the current version of the table. Must be called before
+     * the resource is read.
+     *
+     * @param table the table the resource is read from.
+     * @param representation what else the body depends on besides the URL, e.g. the accepted media types.
+     * @return the ETag, null if the table is pending.
+     */
+    public String etag(final EntityType table, final String representation) {
+        OptionalLong version = get(table);
+        if (version.isEmpty()) {
+            return null;
+        }
+
+        return "W/\"" + version.getAsLong() + "-" + Integer.toHexString(Objects.hashCode(representation)) + "\"";
+    }
+
+    /**
+     * Answer {@code 304 (Not Modified)} if a table is unchanged since the version the client has, before anything is read
+     * from the database. Otherwise the {@code ETag} of the current version is added to the response.
+     *
+     * <p>The body depends on the {@code Accept} header, which is therefore listed in {@code Vary}.</p>
+     *
+     * @param webRequest the request, with its {@code If-None-Match} header.
+     * @param table the table the resource is read from.
+     * @return true if the response is complete and the resource must not be read.
+     */
+    public boolean checkNotModified(final WebRequest webRequest, final EntityType table) {
+        if (webRequest instanceof NativeWebRequest) {
+            HttpServletResponse response = ((NativeWebRequest) webRequest).getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+
+        String etag = etag(table, webRequest.getHeader(HttpHeaders.ACCEPT));
+
+        return (etag != null) && webRequest.checkNotModified(etag);
+    }
+}
@@ -0,0 +1,168 @@
+package apricot.workshopsystem.entityservice.controller;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import apricot.workshopsystem.common.util.TimeUtil;
+import apricot.workshopsystem.entityservice.service.BookerService;
+import apricot.workshopsystem.entityservice.service.ReservationService;
+import apricot.workshopsystem.entityservice.service.RoomService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Fires many concurrent {@code POST /api/reservations/reserve} requests for overlapping slots of one room: exactly one
+ * of them may succeed, and the room must never end up double booked. Plain creates and updates are checked the same way.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        // requests queue on the room lock, the default H2 lock timeout of one second is too short under load
+        "spring.datasource.url=jdbc:h2:mem:reserve-concurrency;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1"})
+public class ReservationReserveConcurrencyTest {
+    private static final int REQUESTS = 64;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookerService bookerService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    public void concurrentOverlappingReservesBookTheRoomOnce() throws Exception {
+        long roomId = createRoom();
+        long bookerId = createBooker();
+
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                // every slot overlaps with every other one
+                ReservationDTO reservation = reservation(roomId, bookerId, START.plusMinutes(i), START.plusMinutes(i + 90));
+                Callable<ResponseEntity<String>> call = () -> {
+                    start.await();
+                    return restTemplate.postForEntity("/api/reservations/reserve", reservation, String.class);
+                };
+                responses.add(executor.submit(call));
+            }
+
+            start.countDown();
+
+            int created = 0;
+            int conflicts = 0;
+            for (Future<ResponseEntity<String>> response : responses) {
+                HttpStatus status = response.get(60, TimeUnit.SECONDS).getStatusCode();
+                if (status == HttpStatus.CREATED) {
+                    created++;
+                } else if (status == HttpStatus.CONFLICT) {
+                    conflicts++;
+                }
+            }
+
+            assertEquals("created", 1, created);
+            assertEquals("conflicts", REQUESTS - 1, conflicts);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ReservationDTO> booked = reservationService.findOverlapping(roomId, START.minusDays(1), START.plusDays(1));
+        for (int i = 0; i < booked.size(); i++) {
+            for (int j = i + 1; j < booked.size(); j++) {
+                assertFalse("double booked: " + booked.get(i) + " and " + booked.get(j), TimeUtil.overlaps(
+                        booked.get(i).getStartDateTime(), booked.get(i).getEndDateTime(),
+                        booked.get(j).getStartDateTime(), booked.get(j).getEndDateTime()));
+            }
+        }
+        assertEquals(1, booked.size());
+    }
+
+    @Test
+    public void plainWritesAreCheckedForOverlaps() {
+        long roomId = createRoom();
+        long bookerId = createBooker();
+        LocalDateTime day = START.plusDays(7);
+
+        ResponseEntity<ReservationDTO> first = restTemplate.postForEntity("/api/reservations",
+                reservation(roomId, bookerId, day, day.plusHours(1)), ReservationDTO.class);
+        ResponseEntity<ReservationDTO> second = restTemplate.postForEntity("/api/reservations",
+                reservation(roomId, bookerId, day.plusHours(2), day.plusHours(3)), ReservationDTO.class);
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+
+        ResponseEntity<String> overlapping = restTemplate.postForEntity("/api/reservations",
+                reservation(roomId, bookerId, day.plusMinutes(30), day.plusMinutes(90)), String.class);
+        assertEquals(HttpStatus.CONFLICT, overlapping.getStatusCode());
+
+        // moving the second reservation onto the first one is rejected, moving it within its own slot is not
+        ReservationDTO moved = second.getBody();
+        moved.setStartDateTime(day.plusMinutes(30));
+        moved.setEndDateTime(day.plusMinutes(150));
+        assertEquals(HttpStatus.CONFLICT, put(moved).getStatusCode());
+
+        moved.setStartDateTime(day.plusMinutes(150));
+        moved.setEndDateTime(day.plusMinutes(210));
+        assertEquals(HttpStatus.OK, put(moved).getStatusCode());
+
+        ResponseEntity<String> withoutTimes = restTemplate.postForEntity("/api/reservations",
+                reservation(roomId, bookerId, null, null), String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, withoutTimes.getStatusCode());
+    }
+
+    private ResponseEntity<String> put(final ReservationDTO reservation) {
+        return restTemplate.exchange("/api/reservations", HttpMethod.PUT, new HttpEntity<>(reservation), String.class);
+    }
+
+    private long createRoom() {
+        RoomDTO room = new RoomDTO();
+        room.setName("Concurrency");
+        room.setNumberOfSeat(10);
+        return roomService.save(room).getId();
+    }
+
+    private long createBooker() {
+        BookerDTO booker = new BookerDTO();
+        booker.setName("Concurrent");
+        booker.setSurname("Booker");
+        booker.setEmail("concurrent.booker@example.com");
+        return bookerService.save(booker).getId();
+    }
+
+    private static ReservationDTO reservation(final long roomId, final long bookerId, final LocalDateTime from, final LocalDateTime to) {
+        ReservationDTO reservation = new ReservationDTO();
+        reservation.setRoomId(roomId);
+        reservation.setBookerId(bookerId);
+        reservation.setStartDateTime(from);
+        reservation.setEndDateTime(to);
+        return reservation;
+    }
+}
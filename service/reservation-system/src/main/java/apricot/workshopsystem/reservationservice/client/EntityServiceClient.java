@@ -0,0 +1,149 @@
+package apricot.workshopsystem.reservationservice.client;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ReservationBatchResultDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Non-blocking client of entity-service used on the reserve path.
+ *
+ * <p>No thread is held while a call is in flight, so the number of threads stays flat as the number of concurrent
+ * bookings grows.</p>
+ *
+ * <p>Every call is bounded by a timeout and goes through {@link EntityServiceResilience}, lookups are retried.</p>
+ */
+@Component
+public class EntityServiceClient {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityServiceClient.class);
+    private static final String BOOKER_GET_URL = "http://entity-service/api/bookers/{id}";
+    private static final String ROOM_GET_URL = "http://entity-service/api/rooms/{id}";
+    private static final String RESERVATION_RESERVE_URL = "http://entity-service/api/reservations/reserve";
+    private static final String RESERVATION_BATCH_URL = "http://entity-service/api/reservations/reserve/batch?atomic={atomic}";
+
+    private final WebClient webClient;
+    private final EntityServiceResilience resilience;
+    private final EntityServiceWireFormat wireFormat;
+    private final Duration lookupTimeout;
+    private final Duration reserveTimeout;
+    private final Duration batchTimeout;
+
+    public EntityServiceClient(@LoadBalanced WebClient.Builder webClientBuilder,
+                               EntityServiceResilience resilience,
+                               EntityServiceWireFormat wireFormat,
+                               @Value("${workshop.entity-service.lookup-timeout-ms:2000}") long lookupTimeoutMs,
+                               @Value("${workshop.entity-service.reserve-timeout-ms:5000}") long reserveTimeoutMs,
+                               @Value("${workshop.entity-service.batch-timeout-ms:30000}") long batchTimeoutMs) {
+        this.webClient = webClientBuilder.build();
+        this.resilience = resilience;
+        this.wireFormat = wireFormat;
+        this.lookupTimeout = Duration.ofMillis(lookupTimeoutMs);
+        this.reserveTimeout = Duration.ofMillis(reserveTimeoutMs);
+        this.batchTimeout = Duration.ofMillis(batchTimeoutMs);
+    }
+
+    /**
+     * Get the "id" booker.
+     *
+     * @param id the id of the booker.
+     * @return the booker, or empty if it does not exist.
+     */
+    public Mono<BookerDTO> findBooker(final long id) {
+        return find(BOOKER_GET_URL, BookerDTO.class, id);
+    }
+
+    /**
+     * Get the "id" room.
+     *
+     * @param id the id of the room.
+     * @return the room, or empty if it does not exist.
+     */
+    public Mono<RoomDTO> findRoom(final long id) {
+        return find(ROOM_GET_URL, RoomDTO.class, id);
+    }
+
+    /**
+     * Create a reservation if its room is free. entity-service checks the overlap and inserts in one transaction.
+     *
+     * @param request the reservation to create.
+     * @return the persisted reservation, or a {@link ResponseStatusException} with status {@code 400 (Bad Request)}
+     *      if entity-service rejects it. The call is not retried, a timeout does not tell if the reservation was made.
+     */
+    public Mono<ReservationDTO> reserve(final ReservationDTO request) {
+        Mono<ReservationDTO> call = webClient.post()
+                .uri(RESERVATION_RESERVE_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(ReservationDTO.class)
+                .timeout(reserveTimeout)
+                .onErrorMap(EntityServiceClient::isClientError, e -> rejected("Reservation", (WebClientResponseException) e));
+
+        return resilience.call(call);
+    }
+
+    /**
+     * Create many reservations at once, each one only if its room is free.
+     *
+     * @param requests the reservations to create.
+     * @param atomic true to create nothing if any reservation is rejected.
+     * @return the result of each reservation, also when an atomic batch is rejected with {@code 409 (Conflict)}, or a
+     *      {@link ResponseStatusException} with status {@code 400 (Bad Request)} if entity-service rejects the batch as a
+     *      whole. The call is not retried.
+     */
+    public Mono<ReservationBatchResultDTO> reserveAll(final List<ReservationDTO> requests, final boolean atomic) {
+        Mono<ReservationBatchResultDTO> call = webClient.post()
+                .uri(RESERVATION_BATCH_URL, atomic)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .flatMap(response -> {
+                    // an atomic batch rejected by entity-service still reports the result of each reservation
+                    if (response.statusCode().is2xxSuccessful() || response.statusCode() == HttpStatus.CONFLICT) {
+                        return response.bodyToMono(ReservationBatchResultDTO.class);
+                    }
+                    return response.createException().flatMap(Mono::error);
+                })
+                .timeout(batchTimeout)
+                .onErrorMap(EntityServiceClient::isClientError, e -> rejected("Reservation batch", (WebClientResponseException) e));
+
+        return resilience.call(call);
+    }
+
+    private <T> Mono<T> find(final String url, final Class<T> type, final long id) {
+        Mono<T> call = webClient.get()
+                .uri(url, id)
+                .headers(headers -> headers.setAccept(wireFormat.accept()))
+                .retrieve()
+                .bodyToMono(type)
+                .timeout(lookupTimeout)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+
+        return resilience.lookup(call);
+    }
+
+    private static boolean isClientError(final Throwable e) {
+        return e instanceof WebClientResponseException && ((WebClientResponseException) e).getStatusCode().is4xxClientError();
+    }
+
+    private static ResponseStatusException rejected(final String what, final WebClientResponseException e) {
+        LOG.warn(what + " rejected by entity-service: " + e.getStatusCode() + " " + e.getResponseBodyAsString());
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, what + " rejected: " + e.getResponseBodyAsString());
+    }
+}
@@ -0,0 +1,63 @@
+package apricot.workshopsystem.reservationservice.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker, bulkhead and retries shared by every call of a booking to entity-service.
+ *
+ * <p>The bulkhead caps the calls in flight, and the circuit breaker fails calls fast while entity-service keeps
+ * failing or answering slowly, so a slow entity-service can not hold every request thread of this service. Both
+ * reject calls with an exception mapped to {@code 503 (Service Unavailable)}. Only lookups are retried, with
+ * exponential backoff, each attempt goes through the circuit breaker and the bulkhead again.</p>
+ *
+ * <p>Instances are configured under {@code resilience4j} and their state is published as metrics.</p>
+ */
+@Component
+public class EntityServiceResilience {
+    public static final String ENTITY_SERVICE = "entity-service";
+    public static final String LOOKUP_RETRY = "entity-service-lookup";
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry lookupRetry;
+
+    public EntityServiceResilience(final CircuitBreakerRegistry circuitBreakerRegistry,
+                                   final BulkheadRegistry bulkheadRegistry,
+                                   final RetryRegistry retryRegistry) {
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(ENTITY_SERVICE);
+        this.bulkhead = bulkheadRegistry.bulkhead(ENTITY_SERVICE);
+        this.lookupRetry = retryRegistry.retry(LOOKUP_RETRY);
+    }
+
+    /**
+     * Protect an idempotent call, it is retried on transient failures.
+     *
+     * @param call the call, subscribed again on every attempt.
+     * @return the protected call.
+     */
+    public <T> Mono<T> lookup(final Mono<T> call) {
+        return call(call).transformDeferred(RetryOperator.of(lookupRetry));
+    }
+
+    /**
+     * Protect a call that must not be repeated.
+     *
+     * @param call the call.
+     * @return the protected call.
+     */
+    public <T> Mono<T> call(final Mono<T> call) {
+        return call
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+}
@@ -0,0 +1,61 @@
+package apricot.workshopsystem.reservationservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The formats asked from entity-service for the bulk and hot reads: lookups, the change feed and the warm-up exports.
+ *
+ * <p>With {@code workshop.entity-service.cbor-enabled}, CBOR is preferred and JSON is accepted as a fallback, so an
+ * entity-service that does not serve CBOR yet still answers. Reservations and batches are still posted as JSON, the
+ * errors entity-service answers them with are shown to the caller.</p>
+ */
+@Component
+public class EntityServiceWireFormat {
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType("application/cbor-seq");
+    private static final double FALLBACK_QUALITY = 0.5;
+
+    private final boolean cborEnabled;
+    private final ObjectMapper cborMapper;
+
+    public EntityServiceWireFormat(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                   @Value("${workshop.entity-service.cbor-enabled:true}") boolean cborEnabled) {
+        this.cborEnabled = cborEnabled;
+        this.cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+    }
+
+    /**
+     * @return the media types to accept for a single entity or a list of entities.
+     */
+    public List<MediaType> accept() {
+        return cborEnabled
+                ? Arrays.asList(MediaType.APPLICATION_CBOR, fallback(MediaType.APPLICATION_JSON))
+                : Collections.singletonList(MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * @return the media types to accept for an export.
+     */
+    public List<MediaType> acceptStream() {
+        return cborEnabled
+                ? Arrays.asList(APPLICATION_CBOR_SEQ, fallback(APPLICATION_NDJSON))
+                : Collections.singletonList(APPLICATION_NDJSON);
+    }
+
+    public ObjectMapper getCborMapper() {
+        return cborMapper;
+    }
+
+    private static MediaType fallback(final MediaType mediaType) {
+        return new MediaType(mediaType, Collections.singletonMap("q", String.valueOf(FALLBACK_QUALITY)));
+    }
+}
@@ -0,0 +1,156 @@
+package apricot.workshopsystem.reservationservice.config;
+
+import apricot.workshopsystem.reservationservice.client.EntityServiceWireFormat;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP clients of entity-service.
+ *
+ * <p>Both clients keep their connections to each entity-service instance in a pool, at most
+ * {@code workshop.entity-service.max-connections-per-route} of them. Connections idle for
+ * {@code workshop.entity-service.max-idle-ms} are closed before entity-service closes them, and connections are
+ * replaced after {@code workshop.entity-service.connection-ttl-ms} so that new instances get their share of the
+ * load. The usage of both pools is published as metrics.</p>
+ *
+ * <p>Both clients give up connecting after {@code workshop.entity-service.connect-timeout-ms}. The blocking client also
+ * bounds the time it waits for a response, per endpoint: the change feed long-polls and the exports stream the whole
+ * table, so they get longer read timeouts than the lookups. The non-blocking client holds no thread while waiting, its
+ * calls are bounded by {@link apricot.workshopsystem.reservationservice.client.EntityServiceClient}.</p>
+ *
+ * <p>With {@code workshop.entity-service.http2-enabled}, the non-blocking client speaks HTTP/2 over cleartext to
+ * entity-service, which must have {@code workshop.http2.enabled} as well.</p>
+ */
+@Configuration
+public class EntityServiceClientConfig {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityServiceClientConfig.class);
+    private static final String POOL_NAME = "entity-service";
+
+    @Value("${workshop.entity-service.max-connections-per-route:100}")
+    int maxConnectionsPerRoute;
+
+    @Value("${workshop.entity-service.max-idle-ms:20000}")
+    long maxIdleMs;
+
+    @Value("${workshop.entity-service.connection-ttl-ms:300000}")
+    long connectionTtlMs;
+
+    @Value("${workshop.entity-service.connect-timeout-ms:1000}")
+    int connectTimeout;
+
+    @Bean
+    PoolingHttpClientConnectionManager entityServiceConnectionManager(@Value("${workshop.entity-service.max-connections:200}") int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(connectionTtlMs, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        return connectionManager;
+    }
+
+    @Bean
+    MeterBinder entityServiceConnectionManagerMetrics(PoolingHttpClientConnectionManager entityServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(entityServiceConnectionManager, POOL_NAME);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider entityServiceConnectionProvider() {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnectionsPerRoute)
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeout))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(connectionTtlMs))
+                .metrics(true)
+                .build();
+    }
+
+    @LoadBalanced
+    @Bean
+    RestTemplate restTemplate(PoolingHttpClientConnectionManager entityServiceConnectionManager,
+                              @Value("${workshop.entity-service.read-timeout-ms:5000}") int readTimeout,
+                              @Value("${workshop.entity-service.feed-read-timeout-ms:40000}") int feedReadTimeout,
+                              @Value("${workshop.entity-service.export-read-timeout-ms:120000}") int exportReadTimeout) {
+        RequestConfig defaultConfig = requestConfig(connectTimeout, readTimeout);
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(entityServiceConnectionManager)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleMs, TimeUnit.MILLISECONDS)
+                .setDefaultRequestConfig(defaultConfig)
+                .build();
+
+        // first matching path prefix wins
+        Map<String, RequestConfig> endpointConfigs = new LinkedHashMap<>();
+        endpointConfigs.put("/api/changes", requestConfig(connectTimeout, feedReadTimeout));
+        endpointConfigs.put("/api/export/", requestConfig(connectTimeout, exportReadTimeout));
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(endpointConfigs.entrySet().stream()
+                    .filter(entry -> uri.getPath() != null && uri.getPath().startsWith(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(defaultConfig));
+            return context;
+        });
+
+        return new RestTemplate(requestFactory);
+    }
+
+    @LoadBalanced
+    @Bean
+    WebClient.Builder webClientBuilder(ObjectProvider<WebClientCustomizer> customizers,
+                                       ConnectionProvider entityServiceConnectionProvider,
+                                       EntityServiceWireFormat wireFormat,
+                                       @Value("${workshop.entity-service.http2-enabled:false}") boolean http2Enabled) {
+        HttpClient httpClient = HttpClient.create(entityServiceConnectionProvider)
+                .tcpConfiguration(tcpClient -> tcpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout));
+
+        if (http2Enabled) {
+            // prior knowledge, the calls of concurrent bookings share connections instead of each taking its own
+            LOG.info("Calling entity-service over HTTP/2");
+            httpClient = httpClient.protocol(HttpProtocol.H2C);
+        }
+
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.customCodecs().register(new Jackson2CborDecoder(wireFormat.getCborMapper())));
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+
+    private static RequestConfig requestConfig(final int connectTimeout, final int readTimeout) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(connectTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+    }
+}
@@ -1,9 +1,13 @@
 package apricot.workshopsystem.reservationservice.controller;
 
-import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.ReservationBatchResultDTO;
 import apricot.workshopsystem.common.dto.ReservationDTO;
-import apricot.workshopsystem.common.dto.RoomDTO;
-import apricot.workshopsystem.common.util.TimeUtil;
+import apricot.workshopsystem.reservationservice.client.EntityServiceClient;
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import apricot.workshopsystem.reservationservice.metrics.ReservationMetrics;
+import apricot.workshopsystem.reservationservice.metrics.ReservationMetrics.Rejection;
+import apricot.workshopsystem.reservationservice.metrics.ReservationMetrics.Stage;
+import apricot.workshopsystem.reservationservice.reference.ReferenceDataCache;
 import io.swagger.annotations.Api;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,12 +16,19 @@ import org.springframework.http.*;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,106 +36,260 @@ import java.util.stream.Collectors;
 @Api(value = "reservation-service")
 public class ReservationController {
     private static final Logger LOG = LoggerFactory.getLogger(ReservationController.class);
-    private static final String BOOKERS_GET_URL = "http://entity-service/api/bookers";
-    private static final String ROOMS_GET_URL = "http://entity-service/api/rooms";
-    private static final String RESERVATION_GET_URL = "http://entity-service/api/reservations";
-    private static final String RESERVATION_CREATE_URL = "http://entity-service/api/reservations";
-    private static final HashMap<Long, TreeSet<ReservationContainer>> roomReservations = new HashMap<>();
-    private static boolean reservationsLoaded = false;
+    private static final int MAX_BATCH_SIZE = 1000;
 
     @Autowired
-    RestTemplate restTemplate;
+    ReservationCache reservationCache;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    EntityServiceClient entityServiceClient;
+
+    @Autowired
+    ReservationMetrics reservationMetrics;
 
     /**
      * {@code POST /reservations/reserve} : Create a new room.
      *
+     * <p>The pipeline is non-blocking: the request thread is released while entity-service is called.</p>
+     *
      * @param request The ReservationDTO to make reservation.
      *
-     * @return The {@link ResponseEntity} with status {@code 201 (Created)} and with body the new reservationDTO,
-     *      or with status {@code 400 (Bad Request)} if any error occurs.
+     * @return The {@link Mono} of the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new reservationDTO,
+     *      or with status {@code 400 (Bad Request)} if any error occurs,
+     *      or with status {@code 503 (Service Unavailable)} if the reservation cache is not warm yet or entity-service is unavailable,
+     *      or with status {@code 504 (Gateway Timeout)} if entity-service does not answer in time.
      *
      * @throws ResponseStatusException if the requested data is invalid.
      */
     @PostMapping("/reservations/reserve")
-    public ResponseEntity<?> reserve(@Valid @RequestBody ReservationDTO request) throws ResponseStatusException {
-        if (!reservationsLoaded) {
-            loadReservations();
+    public Mono<ResponseEntity<?>> reserve(@Valid @RequestBody ReservationDTO request) throws ResponseStatusException {
+        if (!reservationCache.isLoaded()) {
+            reservationMetrics.reject(Rejection.WARMING_UP);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reservation cache is warming up");
+        }
+
+        if (request.getId() != null) {
+            reservationMetrics.reject(Rejection.INVALID);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Id must be null to create a new Reservation: " + request);
         }
 
         if (request.getStartDateTime().isAfter(request.getEndDateTime())) {
-            return new ResponseEntity<>("StartDatetime must be before EndDatetime", HttpStatus.BAD_REQUEST);
+            reservationMetrics.reject(Rejection.INVALID);
+            return Mono.just(new ResponseEntity<>("StartDatetime must be before EndDatetime", HttpStatus.BAD_REQUEST));
         }
 
-        if (overlapsWithReservations(roomReservations.get(request.getRoomId()), request)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Reservation time is not suitable for room (busy): " + request);
+        if (request.getStartDateTime().isBefore(reservationCache.getHorizon())) {
+            reservationMetrics.reject(Rejection.BEFORE_HORIZON);
+            return Mono.just(new ResponseEntity<>("StartDatetime must not be before " + reservationCache.getHorizon(), HttpStatus.BAD_REQUEST));
         }
 
-        BookerDTO[] bookers = restTemplate.getForObject(BOOKERS_GET_URL, BookerDTO[].class);
-        Map<Long, BookerDTO> bookersMap = (bookers == null) ?
-                Collections.emptyMap() : Arrays.stream(bookers).collect(Collectors.toMap(BookerDTO::getId, e -> e));
+        reservationMetrics.time(Stage.OVERLAP_CHECK, () -> reservationCache.findConflict(request))
+                .ifPresent(conflict -> rejectBusy(request, conflict));
+
+        // booker and room are looked up in parallel, no thread waits for them
+        Mono<Boolean> bookerExists = reservationMetrics.time(Stage.BOOKER_FETCH, referenceDataCache.booker(request.getBookerId()).hasElement());
+        Mono<Boolean> roomExists = reservationMetrics.time(Stage.ROOM_FETCH, referenceDataCache.room(request.getRoomId()).hasElement());
+
+        return Mono.zip(bookerExists, roomExists)
+                .flatMap(exists -> {
+                    if (!exists.getT1()) {
+                        reservationMetrics.reject(Rejection.BOOKER_NOT_FOUND);
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Booker with id not exists: " + request));
+                    }
 
-        RoomDTO[] rooms = restTemplate.getForObject(ROOMS_GET_URL, RoomDTO[].class);
-        Map<Long, RoomDTO> roomsMap = (rooms == null) ?
-                Collections.emptyMap() : Arrays.stream(rooms).collect(Collectors.toMap(RoomDTO::getId, e -> e));
+                    if (!exists.getT2()) {
+                        reservationMetrics.reject(Rejection.ROOM_NOT_FOUND);
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Room with id not exists: " + request));
+                    }
 
-        if (bookersMap.get(request.getBookerId()) == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Booker with id not exists: " + request);
+                    return hold(request);
+                })
+                .map(created -> new ResponseEntity<>(created, new HttpHeaders(), HttpStatus.CREATED));
+    }
+
+    private Mono<ReservationDTO> hold(final ReservationDTO request) {
+        // the hold makes the check and the insert one atomic step, concurrent overlapping requests fail here
+        Optional<ReservationDTO> conflict = reservationMetrics.time(Stage.HOLD, () -> reservationCache.tryHold(request));
+        if (conflict.isPresent()) {
+            return Mono.error(busy(request, conflict.get()));
         }
 
-        if (roomsMap.get(request.getRoomId()) == null) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Room with id not exists: " + request);
+        return reservationMetrics.time(Stage.ENTITY_SERVICE_POST, entityServiceClient.reserve(request))
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Empty response from entity-service")))
+                .doOnNext(created -> {
+                    LOG.info("Created reservation: " + created);
+                    reservationMetrics.time(Stage.CACHE_CONFIRM, () -> reservationCache.confirm(request, created));
+                })
+                .doOnError(e -> {
+                    reservationMetrics.reject(isBadRequest(e) ? Rejection.ENTITY_SERVICE_REJECTED : Rejection.ERROR);
+                    reservationCache.release(request);
+                })
+                .doOnCancel(() -> reservationCache.release(request));
+    }
+
+    /**
+     * {@code POST /reservations/reserve/batch} : Create many reservations at once, e.g. a recurring series over several rooms.
+     *
+     * <p>All reservations are checked against the room indexes in one pass, placing a hold on each accepted one, and are
+     * then persisted with a single call to entity-service. Like the single reserve, the pipeline is non-blocking: the
+     * bookers and rooms of the batch are looked up in parallel and no thread waits for entity-service.</p>
+     *
+     * @param requests The ReservationDTOs to make reservations.
+     * @param atomic True to create nothing if any reservation is rejected.
+     *
+     * @return The {@link Mono} of the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each reservation,
+     *      or with status {@code 409 (Conflict)} if an atomic batch was rejected,
+     *      or with status {@code 400 (Bad Request)} if the batch is empty or too large,
+     *      or with status {@code 503 (Service Unavailable)} if the reservation cache is not warm yet or entity-service is unavailable.
+     *
+     * @throws ResponseStatusException if the requested data is invalid.
+     */
+    @PostMapping("/reservations/reserve/batch")
+    public Mono<ResponseEntity<ReservationBatchResultDTO>> reserveAll(@RequestBody List<ReservationDTO> requests,
+                                                                      @RequestParam(value = "atomic", defaultValue = "false") boolean atomic)
+            throws ResponseStatusException {
+        if (!reservationCache.isLoaded()) {
+            reservationMetrics.reject(Rejection.WARMING_UP);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reservation cache is warming up");
         }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
 
-        HttpEntity<ReservationDTO> httpRequest = new HttpEntity<>(request, headers);
+        ReservationBatchResultDTO result = new ReservationBatchResultDTO();
+        List<ReservationBatchResultDTO.Item> valid = new ArrayList<>();
 
-        ResponseEntity<ReservationDTO> response = restTemplate.postForEntity(RESERVATION_CREATE_URL, httpRequest, ReservationDTO.class);
+        for (int i = 0; i < requests.size(); i++) {
+            ReservationDTO request = requests.get(i);
+            ReservationBatchResultDTO.Item item = new ReservationBatchResultDTO.Item();
+            item.setIndex(i);
+            item.setReservation(request);
+            result.getItems().add(item);
 
-        if (response.getStatusCode() == HttpStatus.CREATED) {
-            LOG.info("Created reservation: " + response.getBody());
-        } else {
-            LOG.error("Reservation creation failed: " + response.getStatusCode());
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Reservation creation failed: " +
-                    "responseStatus=" +  response.getStatusCode() + ", expectedStatus=" + HttpStatus.CREATED);
+            if (request.getId() != null || request.getStartDateTime() == null || request.getEndDateTime() == null
+                    || request.getStartDateTime().isAfter(request.getEndDateTime())
+                    || request.getStartDateTime().isBefore(reservationCache.getHorizon())) {
+                reject(item, ReservationBatchResultDTO.Status.INVALID,
+                        "Id must be null and StartDatetime must be before EndDatetime and not before " + reservationCache.getHorizon());
+            } else {
+                valid.add(item);
+            }
         }
 
-        TreeSet<ReservationContainer> reservations = roomReservations.computeIfAbsent(request.getRoomId(), k -> new TreeSet<>());
-        reservations.add(new ReservationContainer(request));
+        // every booker and room of the batch is looked up once, all of them in parallel
+        Mono<Set<Long>> bookerIds = reservationMetrics.time(Stage.BOOKER_FETCH,
+                existing(valid, ReservationDTO::getBookerId, referenceDataCache::booker));
+        Mono<Set<Long>> roomIds = reservationMetrics.time(Stage.ROOM_FETCH,
+                existing(valid, ReservationDTO::getRoomId, referenceDataCache::room));
 
-        return new ResponseEntity<>(request, new HttpHeaders(), HttpStatus.CREATED);
+        return Mono.zip(bookerIds, roomIds)
+                .flatMap(existing -> holdAll(result, valid, existing.getT1(), existing.getT2(), atomic))
+                .map(applied -> ResponseEntity.status(applied.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT).body(applied));
     }
 
-    private void loadReservations() {
-        ReservationDTO[] restReservations = restTemplate.getForObject(RESERVATION_GET_URL, ReservationDTO[].class);
+    private Mono<ReservationBatchResultDTO> holdAll(final ReservationBatchResultDTO result, final List<ReservationBatchResultDTO.Item> valid,
+                                                    final Set<Long> bookerIds, final Set<Long> roomIds, final boolean atomic) {
+        List<ReservationBatchResultDTO.Item> held = new ArrayList<>();
+
+        for (ReservationBatchResultDTO.Item item : valid) {
+            ReservationDTO request = item.getReservation();
 
-        reservationsLoaded = true;
+            if (!bookerIds.contains(request.getBookerId())) {
+                reject(item, ReservationBatchResultDTO.Status.BOOKER_NOT_FOUND, "Booker with id not exists: " + request.getBookerId());
+            } else if (!roomIds.contains(request.getRoomId())) {
+                reject(item, ReservationBatchResultDTO.Status.ROOM_NOT_FOUND, "Room with id not exists: " + request.getRoomId());
+            } else {
+                // earlier reservations of the batch are held already, so overlaps within the batch are found here too
+                reservationCache.tryHold(request).ifPresentOrElse(
+                        conflict -> reject(item, ReservationBatchResultDTO.Status.CONFLICT,
+                                "Reservation time is not suitable for room (busy), conflicts with: " + conflict),
+                        () -> held.add(item));
+            }
+        }
 
-        if (restReservations == null) {
-            return; // no record on entity-server
+        boolean rejected = held.size() < result.getItems().size();
+        if (held.isEmpty() || (atomic && rejected)) {
+            held.forEach(item -> {
+                reservationCache.release(item.getReservation());
+                item.setStatus(ReservationBatchResultDTO.Status.NOT_APPLIED);
+            });
+            result.setApplied(!atomic);
+            return Mono.just(result);
         }
 
-        Arrays.stream(restReservations).forEach(reservation -> {
-            TreeSet<ReservationContainer> reservations = roomReservations.computeIfAbsent(reservation.getRoomId(), k -> new TreeSet<>());
-            reservations.add(new ReservationContainer(reservation));
-            LOG.info("Added reservation to cache: " + reservation);
-        });
+        List<ReservationDTO> reservations = new ArrayList<>(held.size());
+        held.forEach(item -> reservations.add(item.getReservation()));
+
+        return entityServiceClient.reserveAll(reservations, atomic)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Empty response from entity-service")))
+                .doOnError(e -> held.forEach(item -> reservationCache.release(item.getReservation())))
+                .doOnCancel(() -> held.forEach(item -> reservationCache.release(item.getReservation())))
+                .map(remote -> {
+                    for (int i = 0; i < held.size(); i++) {
+                        ReservationBatchResultDTO.Item item = held.get(i);
+                        ReservationBatchResultDTO.Item remoteItem = remote.getItems().get(i);
+
+                        if (remoteItem.getStatus() == ReservationBatchResultDTO.Status.CREATED) {
+                            reservationCache.confirm(item.getReservation(), remoteItem.getReservation());
+                            item.setReservation(remoteItem.getReservation());
+                        } else {
+                            reservationCache.release(item.getReservation());
+                        }
+
+                        item.setStatus(remoteItem.getStatus());
+                        item.setMessage(remoteItem.getMessage());
+                    }
+
+                    result.setApplied(remote.isApplied());
+                    LOG.info("Reserved batch: size=" + result.getItems().size() + ", atomic=" + atomic + ", applied=" + result.isApplied());
+                    return result;
+                });
     }
 
-    private boolean overlapsWithReservations(final TreeSet<ReservationContainer> reservations, final ReservationDTO request) {
-        if (reservations == null) {
-            return false;
-        }
+    private static Mono<Set<Long>> existing(final List<ReservationBatchResultDTO.Item> items, final Function<ReservationDTO, Long> id,
+                                            final Function<Long, Mono<?>> lookup) {
+        Set<Long> ids = new HashSet<>();
+        items.forEach(item -> ids.add(id.apply(item.getReservation())));
 
-        for (ReservationContainer reservationContainer : reservations) {
-            ReservationDTO r = reservationContainer.getReservation();
-            if (TimeUtil.overlaps(r.getStartDateTime(), r.getEndDateTime(), request.getStartDateTime(), request.getEndDateTime())) {
-                return true;
-            }
-        }
+        return Flux.fromIterable(ids)
+                .flatMap(candidate -> lookup.apply(candidate).map(found -> candidate))
+                .collect(Collectors.toSet());
+    }
+
+    private void rejectBusy(final ReservationDTO request, final ReservationDTO conflict) {
+        throw busy(request, conflict);
+    }
+
+    private ResponseStatusException busy(final ReservationDTO request, final ReservationDTO conflict) {
+        reservationMetrics.reject(Rejection.BUSY);
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Reservation time is not suitable for room (busy): " + request
+                + ", conflicts with: " + conflict);
+    }
 
-        return false;
+    private static boolean isBadRequest(final Throwable e) {
+        return e instanceof ResponseStatusException && ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST;
+    }
+
+    private void reject(final ReservationBatchResultDTO.Item item, final ReservationBatchResultDTO.Status status, final String message) {
+        reservationMetrics.reject(rejection(status));
+        item.setStatus(status);
+        item.setMessage(message);
+    }
+
+    private static Rejection rejection(final ReservationBatchResultDTO.Status status) {
+        switch (status) {
+            case BOOKER_NOT_FOUND:
+                return Rejection.BOOKER_NOT_FOUND;
+            case ROOM_NOT_FOUND:
+                return Rejection.ROOM_NOT_FOUND;
+            case CONFLICT:
+                return Rejection.BUSY;
+            default:
+                return Rejection.INVALID;
+        }
     }
 }
@@ -0,0 +1,134 @@
+package apricot.workshopsystem.reservationservice.controller;
+
+import apricot.workshopsystem.common.dto.FreeSlotDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import apricot.workshopsystem.reservationservice.index.FreeSlotFinder;
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import apricot.workshopsystem.reservationservice.index.RoomAvailability;
+import io.swagger.annotations.Api;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api", produces = {MediaType.APPLICATION_JSON_VALUE})
+@Api(value = "reservation-service")
+public class RoomController {
+    private static final Logger LOG = LoggerFactory.getLogger(RoomController.class);
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    ReservationCache reservationCache;
+
+    @Autowired
+    RoomAvailability roomAvailability;
+
+    @Autowired
+    FreeSlotFinder freeSlotFinder;
+
+    /**
+     * {@code GET /api/rooms/free} : Find the rooms with enough seats that are free for a whole time range.
+     *
+     * <p>Answered from the in-memory room catalog and reservation indexes, entity-service is not called.</p>
+     *
+     * @param from The start of the time range.
+     * @param to The end of the time range.
+     * @param minSeats The minimum number of seats.
+     * @param limit The maximum number of rooms to return.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the free rooms ordered by number of seats in body,
+     *      or with status {@code 400 (Bad Request)} if the range or the limit is invalid, or the range starts before the cache horizon,
+     *      or with status {@code 503 (Service Unavailable)} if the reservation cache is not warm yet.
+     *
+     * @throws ResponseStatusException if the requested data is invalid.
+     */
+    @GetMapping("/rooms/free")
+    public ResponseEntity<List<RoomDTO>> findFree(@RequestParam("from") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam("to") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestParam(value = "minSeats", defaultValue = "1") int minSeats,
+                                                  @RequestParam(value = "limit", defaultValue = "100") int limit) throws ResponseStatusException {
+        LOG.debug("REST request to find free Rooms between {} and {} with {} seats", from, to, minSeats);
+
+        if (!reservationCache.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reservation cache is warming up");
+        }
+
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must be before To");
+        }
+
+        if (from.isBefore(reservationCache.getHorizon())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must not be before " + reservationCache.getHorizon());
+        }
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return ResponseEntity.ok(roomAvailability.findFree(from, to, minSeats, limit));
+    }
+
+    /**
+     * {@code GET /api/rooms/free-slots} : Find the earliest slots of a given duration in any room with enough seats.
+     *
+     * <p>Answered from the in-memory room catalog and reservation indexes, entity-service is not called.</p>
+     *
+     * @param from The earliest start of a slot.
+     * @param to The latest end of a slot.
+     * @param durationMinutes The duration of a slot in minutes.
+     * @param minSeats The minimum number of seats.
+     * @param limit The maximum number of slots to return.
+     *
+     * @return The {@link ResponseEntity} with status {@code 200 (OK)} and the slots ordered by start time in body,
+     *      or with status {@code 400 (Bad Request)} if the range, the duration or the limit is invalid, or the range starts before the
+     *      cache horizon,
+     *      or with status {@code 503 (Service Unavailable)} if the reservation cache is not warm yet.
+     *
+     * @throws ResponseStatusException if the requested data is invalid.
+     */
+    @GetMapping("/rooms/free-slots")
+    public ResponseEntity<List<FreeSlotDTO>> findFreeSlots(@RequestParam("from") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+                                                           @RequestParam("to") @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+                                                           @RequestParam("durationMinutes") long durationMinutes,
+                                                           @RequestParam(value = "minSeats", defaultValue = "1") int minSeats,
+                                                           @RequestParam(value = "limit", defaultValue = "10") int limit)
+            throws ResponseStatusException {
+        LOG.debug("REST request to find free slots of {} minutes between {} and {} with {} seats", durationMinutes, from, to, minSeats);
+
+        if (!reservationCache.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reservation cache is warming up");
+        }
+
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must be before To");
+        }
+
+        if (from.isBefore(reservationCache.getHorizon())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "From must not be before " + reservationCache.getHorizon());
+        }
+
+        if (durationMinutes < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duration must be at least one minute");
+        }
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return ResponseEntity.ok(freeSlotFinder.findFirst(from, to, Duration.ofMinutes(durationMinutes), minSeats, limit));
+    }
+}
@@ -1,5 +1,7 @@
 package apricot.workshopsystem.reservationservice.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -10,7 +12,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 @ControllerAdvice
 public class RestErrorHandler {
@@ -32,4 +36,18 @@ public class RestErrorHandler {
 
         return new RestError(HttpStatus.BAD_REQUEST, ex.getMessage(), errorList);
     }
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    @ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public RestError handleEntityServiceUnavailable(RuntimeException ex, WebRequest request) {
+        return new RestError(HttpStatus.SERVICE_UNAVAILABLE, "entity-service is unavailable: " + ex.getMessage(), Collections.emptyList());
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    @ResponseStatus(code = HttpStatus.GATEWAY_TIMEOUT)
+    @ResponseBody
+    public RestError handleTimeoutException(TimeoutException ex, WebRequest request) {
+        return new RestError(HttpStatus.GATEWAY_TIMEOUT, "entity-service did not answer in time: " + ex.getMessage(), Collections.emptyList());
+    }
 }
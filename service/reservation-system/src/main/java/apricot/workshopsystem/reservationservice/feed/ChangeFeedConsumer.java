@@ -0,0 +1,164 @@
+package apricot.workshopsystem.reservationservice.feed;
+
+import apricot.workshopsystem.common.dto.ChangeEventDTO;
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.util.VirtualThreads;
+import apricot.workshopsystem.reservationservice.client.EntityServiceWireFormat;
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import apricot.workshopsystem.reservationservice.index.ReservationCacheLoadedEvent;
+import apricot.workshopsystem.reservationservice.index.ReservationCacheLoader;
+import apricot.workshopsystem.reservationservice.index.RoomCatalog;
+import apricot.workshopsystem.reservationservice.reference.ReferenceDataCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Keeps the local caches coherent with changes made through entity-service by any client.
+ *
+ * <p>Once the reservation cache is loaded, the change feed is long-polled from the sequence number taken before the
+ * load and every change is applied incrementally. Changes are applied idempotently, so replaying the ones already
+ * contained in the loaded snapshot is harmless. On errors polling resumes from the last applied sequence number. If the
+ * feed has been purged past it, the cache is reloaded.</p>
+ */
+@Component
+public class ChangeFeedConsumer {
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFeedConsumer.class);
+    private static final String CHANGES_GET_URL = "http://entity-service/api/changes?after={after}&limit={limit}&wait={wait}";
+
+    private final RestTemplate restTemplate;
+    private final ReservationCache reservationCache;
+    private final ReservationCacheLoader reservationCacheLoader;
+    private final ReferenceDataCache referenceDataCache;
+    private final RoomCatalog roomCatalog;
+    private final HttpEntity<Void> pollRequest;
+    private final int batchSize;
+    private final long waitMillis;
+    private final long retryIntervalMillis;
+    private final boolean virtualThreads;
+    private volatile long lastSequence;
+
+    public ChangeFeedConsumer(RestTemplate restTemplate, ReservationCache reservationCache, ReservationCacheLoader reservationCacheLoader,
+                              ReferenceDataCache referenceDataCache, RoomCatalog roomCatalog, EntityServiceWireFormat wireFormat,
+                              @Value("${workshop.change-feed.batch-size:500}") int batchSize,
+                              @Value("${workshop.change-feed.wait-ms:30000}") long waitMillis,
+                              @Value("${workshop.change-feed.retry-interval-ms:5000}") long retryIntervalMillis,
+                              @Value("${workshop.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.restTemplate = restTemplate;
+        this.reservationCache = reservationCache;
+        this.reservationCacheLoader = reservationCacheLoader;
+        this.referenceDataCache = referenceDataCache;
+        this.roomCatalog = roomCatalog;
+        this.batchSize = batchSize;
+        this.waitMillis = waitMillis;
+        this.retryIntervalMillis = retryIntervalMillis;
+        this.virtualThreads = virtualThreads;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(wireFormat.accept());
+        this.pollRequest = new HttpEntity<>(headers);
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @EventListener
+    public void onCacheLoaded(ReservationCacheLoadedEvent event) {
+        lastSequence = event.getSequence();
+
+        // the poller spends its time blocked in the long poll, a virtual thread releases its carrier meanwhile
+        VirtualThreads.newThread("change-feed-consumer", this::consume, virtualThreads).start();
+    }
+
+    private void consume() {
+        LOG.info("Consuming change feed after sequence {}", lastSequence);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            ChangeEventDTO[] changes;
+            try {
+                changes = restTemplate.exchange(CHANGES_GET_URL, HttpMethod.GET, pollRequest, ChangeEventDTO[].class,
+                        lastSequence, batchSize, waitMillis).getBody();
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() == HttpStatus.GONE) {
+                    LOG.warn("Change feed purged after sequence {}: {}", lastSequence, e.getMessage());
+                    reservationCacheLoader.reload();
+                    return;
+                }
+                LOG.warn("Could not read change feed, retrying in {} ms: {}", retryIntervalMillis, e.getMessage());
+                sleep();
+                continue;
+            } catch (RestClientException e) {
+                LOG.warn("Could not read change feed, retrying in {} ms: {}", retryIntervalMillis, e.getMessage());
+                sleep();
+                continue;
+            }
+
+            if (changes == null) {
+                continue;
+            }
+
+            for (ChangeEventDTO change : changes) {
+                apply(change);
+                lastSequence = change.getSequence();
+            }
+        }
+    }
+
+    private void apply(final ChangeEventDTO change) {
+        LOG.debug("Applying change: {}", change);
+
+        switch (change.getEntityType()) {
+            case RESERVATION:
+                applyReservation(change.getReservation(), change.getPreviousReservation());
+                break;
+            case ROOM:
+                applyRoom(change.getOperation(), change.getEntityId());
+                break;
+            case BOOKER:
+                referenceDataCache.evictBooker(change.getEntityId());
+                break;
+            default:
+                LOG.warn("Unknown change type: {}", change);
+        }
+    }
+
+    private void applyRoom(final ChangeEventDTO.Operation operation, final long roomId) {
+        referenceDataCache.evictRoom(roomId);
+
+        if (operation == ChangeEventDTO.Operation.DELETED) {
+            roomCatalog.remove(roomId);
+            return;
+        }
+
+        // room events only carry the id, the current state is looked up once
+        referenceDataCache.findRoom(roomId).ifPresentOrElse(roomCatalog::put, () -> roomCatalog.remove(roomId));
+    }
+
+    private void applyReservation(final ReservationDTO reservation, final ReservationDTO previousReservation) {
+        if (previousReservation != null) {
+            reservationCache.remove(previousReservation);
+        }
+
+        if (reservation != null) {
+            reservationCache.put(reservation);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(retryIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
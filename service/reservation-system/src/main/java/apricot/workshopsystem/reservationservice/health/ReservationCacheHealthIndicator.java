@@ -0,0 +1,32 @@
+package apricot.workshopsystem.reservationservice.health;
+
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the instance {@code OUT_OF_SERVICE} until the reservation cache is warm.
+ *
+ * <p>With the Eureka health check enabled the status is propagated to the registry, so load balanced clients only
+ * route to warm instances.</p>
+ */
+@Component
+public class ReservationCacheHealthIndicator extends AbstractHealthIndicator {
+    private final ReservationCache reservationCache;
+
+    public ReservationCacheHealthIndicator(ReservationCache reservationCache) {
+        this.reservationCache = reservationCache;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.withDetail("reservations", reservationCache.size());
+
+        if (reservationCache.isLoaded()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+    }
+}
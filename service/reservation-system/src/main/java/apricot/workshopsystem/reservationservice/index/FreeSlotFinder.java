@@ -0,0 +1,92 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.FreeSlotDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the earliest free slots of a given duration across many rooms, from the in-memory {@link RoomCatalog} and
+ * {@link ReservationCache}.
+ *
+ * <p>The free windows of every room are merged with a priority queue ordered by start time. Each room contributes only
+ * its next window at a time and is advanced once that window is taken, so finding the first {@code k} slots of
+ * {@code r} rooms costs {@code O((r + k) log r)} window lookups instead of a scan of every reservation.</p>
+ */
+@Component
+public class FreeSlotFinder {
+    // on the same start the smallest room comes first, keeping large rooms for large groups
+    private static final Comparator<Candidate> EARLIEST_FIRST = Comparator.<Candidate, LocalDateTime>comparing(c -> c.window.getStart())
+            .thenComparingInt(c -> c.room.getNumberOfSeat())
+            .thenComparing(c -> c.room.getId());
+
+    private final RoomCatalog roomCatalog;
+    private final ReservationCache reservationCache;
+
+    public FreeSlotFinder(RoomCatalog roomCatalog, ReservationCache reservationCache) {
+        this.roomCatalog = roomCatalog;
+        this.reservationCache = reservationCache;
+    }
+
+    /**
+     * Find the earliest slots of a duration in the rooms with enough seats.
+     *
+     * <p>At most one slot is returned per free window, at its start. A room can appear several times, once for each of its
+     * free windows.</p>
+     *
+     * @param from the earliest start of a slot.
+     * @param until the latest end of a slot.
+     * @param duration the duration of a slot.
+     * @param minSeats the minimum number of seats.
+     * @param limit the maximum number of slots to return.
+     * @return the slots ordered by start time.
+     */
+    public List<FreeSlotDTO> findFirst(final LocalDateTime from, final LocalDateTime until, final Duration duration, final int minSeats,
+                                       final int limit) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(EARLIEST_FIRST);
+
+        for (RoomDTO room : roomCatalog.withSeats(minSeats)) {
+            reservationCache.findFreeWindow(room.getId(), from, duration, until).ifPresent(window -> queue.add(new Candidate(room, window)));
+        }
+
+        List<FreeSlotDTO> slots = new ArrayList<>(Math.min(limit, queue.size()));
+
+        while (slots.size() < limit && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            slots.add(slot(candidate, duration));
+
+            LocalDateTime next = candidate.window.getNext();
+            if (next != null) {
+                reservationCache.findFreeWindow(candidate.room.getId(), next, duration, until)
+                        .ifPresent(window -> queue.add(new Candidate(candidate.room, window)));
+            }
+        }
+
+        return slots;
+    }
+
+    private static FreeSlotDTO slot(final Candidate candidate, final Duration duration) {
+        FreeSlotDTO slot = new FreeSlotDTO();
+        slot.setRoom(candidate.room);
+        slot.setStartDateTime(candidate.window.getStart());
+        slot.setEndDateTime(candidate.window.getStart().plus(duration));
+        slot.setFreeUntil(candidate.window.getEnd());
+        return slot;
+    }
+
+    private static final class Candidate {
+        private final RoomDTO room;
+        private final FreeWindow window;
+
+        private Candidate(final RoomDTO room, final FreeWindow window) {
+            this.room = room;
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import java.time.LocalDateTime;
+
+/**
+ * A free time range of a room, found by {@link RoomReservationIndex#findFreeWindow}.
+ */
+public final class FreeWindow {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final LocalDateTime next;
+
+    public FreeWindow(final LocalDateTime start, final LocalDateTime end, final LocalDateTime next) {
+        this.start = start;
+        this.end = end;
+        this.next = next;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * @return the last free minute before the next reservation, or the end of the searched range.
+     */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the earliest start of the following free window, or null if the window runs to the end of the searched range.
+     */
+    public LocalDateTime getNext() {
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "FreeWindow(start=" + start + ", end=" + end + ", next=" + next + ")";
+    }
+}
@@ -0,0 +1,242 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import org.springframework.cloud.sleuth.annotation.NewSpan;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory cache of the reservations of every room, safe to use from concurrent request threads.
+ *
+ * <p>A booking first places a hold on its time range with {@link #tryHold(ReservationDTO)}, which checks and
+ * inserts in one step under the lock of the room. The hold is then either confirmed with the persisted
+ * reservation or released if persisting fails, so two overlapping requests can never both succeed.</p>
+ *
+ * <p>Changes made by other clients reach the cache through the entity-service change feed.</p>
+ *
+ * <p>Reservations that ended before the horizon set by {@link #evictBefore(LocalDateTime)} are dropped and no longer
+ * cached, so the cache only grows with the bookings of the retention period. Requests starting before the horizon can
+ * not be checked and must be rejected by the caller.</p>
+ */
+@Component
+public class ReservationCache {
+    private final ConcurrentMap<Long, RoomReservations> rooms = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile LocalDateTime horizon = LocalDateTime.MIN;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(final boolean loaded) {
+        this.loaded = loaded;
+    }
+
+    /**
+     * Get the point in time before which ended reservations are no longer cached.
+     *
+     * @return the horizon, {@link LocalDateTime#MIN} if nothing has been evicted.
+     */
+    public LocalDateTime getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Count the cached reservations of all rooms.
+     *
+     * @return the number of cached reservations.
+     */
+    public int size() {
+        return rooms.values().stream().mapToInt(RoomReservations::size).sum();
+    }
+
+    /**
+     * Count the rooms with cached reservations.
+     *
+     * @return the number of rooms.
+     */
+    public int roomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * Count the cached reservations of the room that has the most of them.
+     *
+     * @return the number of cached reservations of the largest room, 0 if there are none.
+     */
+    public int largestRoomSize() {
+        return rooms.values().stream().mapToInt(RoomReservations::size).max().orElse(0);
+    }
+
+    /**
+     * Find a cached reservation overlapping with the requested one.
+     *
+     * @param request the requested reservation.
+     * @return one of the conflicting reservations, or empty if the room is free.
+     */
+    @NewSpan("overlap-check")
+    public Optional<ReservationDTO> findConflict(final ReservationDTO request) {
+        RoomReservations reservations = rooms.get(request.getRoomId());
+        if (reservations == null) {
+            return Optional.empty();
+        }
+
+        return reservations.findConflict(request.getStartDateTime(), request.getEndDateTime());
+    }
+
+    /**
+     * Check whether a room has no cached reservation overlapping with a time range.
+     *
+     * @param roomId the id of the room.
+     * @param start the start of the range.
+     * @param end the end of the range.
+     * @return true if the room is free.
+     */
+    public boolean isFree(final long roomId, final LocalDateTime start, final LocalDateTime end) {
+        RoomReservations reservations = rooms.get(roomId);
+
+        return reservations == null || reservations.findConflict(start, end).isEmpty();
+    }
+
+    /**
+     * Find the earliest free window of a room that is long enough for a reservation of the given duration.
+     *
+     * @param roomId the id of the room.
+     * @param from the earliest start of the window.
+     * @param duration the duration the window must fit.
+     * @param until the latest end of the window.
+     * @return the free window, or empty if no window fits before until.
+     */
+    public Optional<FreeWindow> findFreeWindow(final long roomId, final LocalDateTime from, final Duration duration, final LocalDateTime until) {
+        RoomReservations reservations = rooms.get(roomId);
+        if (reservations == null) {
+            return from.plus(duration).isAfter(until) ? Optional.empty() : Optional.of(new FreeWindow(from, until, null));
+        }
+
+        return reservations.findFreeWindow(from, duration, until);
+    }
+
+    /**
+     * Hold the time range of the request if the room is free.
+     *
+     * @param hold the requested reservation, without id. The same instance must be passed to
+     *      {@link #confirm(ReservationDTO, ReservationDTO)} or {@link #release(ReservationDTO)}.
+     * @return the conflicting reservation if the room is busy, or empty if the hold is placed.
+     */
+    @NewSpan("hold")
+    public Optional<ReservationDTO> tryHold(final ReservationDTO hold) {
+        return room(hold.getRoomId()).addIfFree(hold);
+    }
+
+    /**
+     * Replace a hold with the persisted reservation.
+     *
+     * @param hold the hold placed by {@link #tryHold(ReservationDTO)}.
+     * @param created the persisted reservation.
+     */
+    public void confirm(final ReservationDTO hold, final ReservationDTO created) {
+        room(hold.getRoomId()).replace(hold, created);
+    }
+
+    /**
+     * Release a hold placed by {@link #tryHold(ReservationDTO)}.
+     *
+     * @param hold the hold to release.
+     */
+    public void release(final ReservationDTO hold) {
+        room(hold.getRoomId()).remove(hold);
+    }
+
+    /**
+     * Add an already persisted reservation.
+     *
+     * @param reservation the reservation to add.
+     */
+    public void add(final ReservationDTO reservation) {
+        if (reservation.getEndDateTime().isBefore(horizon)) {
+            return;
+        }
+
+        room(reservation.getRoomId()).add(reservation);
+    }
+
+    /**
+     * Add an already persisted reservation during a bulk load, in any order. The rooms are sorted once by
+     * {@link #finishLoading()} instead of on every insert.
+     *
+     * @param reservation the reservation to add.
+     */
+    public void append(final ReservationDTO reservation) {
+        if (reservation.getEndDateTime().isBefore(horizon)) {
+            return;
+        }
+
+        room(reservation.getRoomId()).append(reservation);
+    }
+
+    /**
+     * Sort the rooms filled by {@link #append(ReservationDTO)} and mark the cache as loaded.
+     */
+    public void finishLoading() {
+        rooms.values().forEach(RoomReservations::sort);
+        loaded = true;
+    }
+
+    /**
+     * Add or refresh an already persisted reservation. Applying the same reservation twice keeps a single copy.
+     *
+     * @param reservation the reservation to add.
+     */
+    public void put(final ReservationDTO reservation) {
+        if (reservation.getEndDateTime().isBefore(horizon)) {
+            return;
+        }
+
+        room(reservation.getRoomId()).put(reservation);
+    }
+
+    /**
+     * Remove a reservation.
+     *
+     * @param reservation the reservation to remove, matched by room, start and id.
+     */
+    public void remove(final ReservationDTO reservation) {
+        RoomReservations reservations = rooms.get(reservation.getRoomId());
+        if (reservations != null) {
+            reservations.remove(reservation);
+        }
+    }
+
+    /**
+     * Move the horizon forward and drop the reservations that ended before it.
+     *
+     * @param time the new horizon, ignored if before the current one.
+     * @return the number of dropped reservations.
+     */
+    public synchronized int evictBefore(final LocalDateTime time) {
+        if (!time.isAfter(horizon)) {
+            return 0;
+        }
+
+        horizon = time;
+        // rooms are kept even when empty, a hold may be placed on them concurrently
+        return rooms.values().stream().mapToInt(reservations -> reservations.evictEndingBefore(time)).sum();
+    }
+
+    /**
+     * Drop all cached reservations and mark the cache as not loaded.
+     */
+    public void clear() {
+        loaded = false;
+        rooms.clear();
+    }
+
+    private RoomReservations room(final long roomId) {
+        return rooms.computeIfAbsent(roomId, RoomReservations::new);
+    }
+}
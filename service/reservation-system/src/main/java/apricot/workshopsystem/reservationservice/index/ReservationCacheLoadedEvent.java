@@ -0,0 +1,25 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the {@link ReservationCache} has been filled from entity-service.
+ */
+public class ReservationCacheLoadedEvent extends ApplicationEvent {
+    private final long sequence;
+
+    /**
+     * Create the event.
+     *
+     * @param source the loader.
+     * @param sequence the change feed sequence number taken before the load. Changes after it may be missing from the cache.
+     */
+    public ReservationCacheLoadedEvent(Object source, long sequence) {
+        super(source);
+        this.sequence = sequence;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,211 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import apricot.workshopsystem.common.util.VirtualThreads;
+import apricot.workshopsystem.reservationservice.client.EntityServiceWireFormat;
+import apricot.workshopsystem.reservationservice.metrics.ReservationMetrics;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Warms up the {@link RoomCatalog} and the {@link ReservationCache} at startup.
+ *
+ * <p>The whole room and reservation tables are streamed as CBOR sequences, or newline-delimited JSON, on a background
+ * thread and the indexes are filled entity by entity, so neither side holds a table in memory. An interrupted export is
+ * resumed after the last entity received. The cache is marked loaded only after the last line, until then the instance reports itself
+ * out of service.</p>
+ *
+ * <p>The change feed head is read before the export, so the changes committed while loading are replayed by the
+ * {@link apricot.workshopsystem.reservationservice.feed.ChangeFeedConsumer} once the load is done.</p>
+ */
+@Component
+public class ReservationCacheLoader {
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationCacheLoader.class);
+    private static final String ROOM_EXPORT_URL = "http://entity-service/api/export/rooms?after={after}";
+    private static final String RESERVATION_EXPORT_URL = "http://entity-service/api/export/reservations?after={after}";
+    private static final String CHANGE_HEAD_URL = "http://entity-service/api/changes/head";
+    private static final int LOG_INTERVAL = 10000;
+
+    private final RestTemplate restTemplate;
+    private final ReservationCache reservationCache;
+    private final RoomCatalog roomCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationMetrics reservationMetrics;
+    private final EntityServiceWireFormat wireFormat;
+    private final ExportReaders roomReaders;
+    private final ExportReaders reservationReaders;
+    private final long retryIntervalMillis;
+    private final boolean virtualThreads;
+
+    public ReservationCacheLoader(RestTemplate restTemplate, ReservationCache reservationCache, RoomCatalog roomCatalog,
+                                  ApplicationEventPublisher eventPublisher, ReservationMetrics reservationMetrics, ObjectMapper objectMapper,
+                                  EntityServiceWireFormat wireFormat,
+                                  @Value("${workshop.reservation-cache.warmup.retry-interval-ms:5000}") long retryIntervalMillis,
+                                  @Value("${workshop.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.restTemplate = restTemplate;
+        this.reservationCache = reservationCache;
+        this.roomCatalog = roomCatalog;
+        this.eventPublisher = eventPublisher;
+        this.reservationMetrics = reservationMetrics;
+        this.wireFormat = wireFormat;
+        this.roomReaders = new ExportReaders(objectMapper.readerFor(RoomDTO.class), wireFormat.getCborMapper().readerFor(RoomDTO.class));
+        this.reservationReaders = new ExportReaders(objectMapper.readerFor(ReservationDTO.class),
+                wireFormat.getCborMapper().readerFor(ReservationDTO.class));
+        this.retryIntervalMillis = retryIntervalMillis;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        VirtualThreads.newThread("reservation-cache-warmup", this::load, virtualThreads).start();
+    }
+
+    /**
+     * Drop the cache and load it again, used when the change feed can no longer be resumed.
+     */
+    public void reload() {
+        LOG.warn("Reloading reservation cache");
+
+        reservationCache.clear();
+        roomCatalog.clear();
+        warmUp();
+    }
+
+    private void load() {
+        LOG.info("Warming up reservation cache");
+        long start = System.nanoTime();
+
+        Long sequence = null;
+        while (sequence == null) {
+            try {
+                sequence = restTemplate.getForObject(CHANGE_HEAD_URL, Long.class);
+            } catch (RestClientException e) {
+                LOG.warn("Could not read change feed head, retrying in {} ms: {}", retryIntervalMillis, e.getMessage());
+                if (!sleep()) {
+                    return;
+                }
+            }
+        }
+
+        // rooms first, so the availability search knows every room that has reservations
+        long rooms = export(ROOM_EXPORT_URL, roomReaders, RoomDTO::getId, roomCatalog::put);
+        if (rooms < 0) {
+            return;
+        }
+
+        // the export is ordered by id, not start time: reservations are appended and each room is sorted once at the end
+        long loaded = export(RESERVATION_EXPORT_URL, reservationReaders, ReservationDTO::getId, reservationCache::append);
+        if (loaded < 0) {
+            return;
+        }
+
+        reservationCache.finishLoading();
+        reservationMetrics.recordWarmUp(Duration.ofNanos(System.nanoTime() - start));
+        LOG.info("Reservation cache is warm: {} rooms, {} reservations, changeSequence={}", rooms, loaded, sequence);
+
+        eventPublisher.publishEvent(new ReservationCacheLoadedEvent(this, sequence));
+    }
+
+    /**
+     * Stream an export of entity-service into a consumer, resuming after the last entity received on errors.
+     *
+     * @return the number of entities received, or -1 if interrupted.
+     */
+    private <T> long export(final String url, final ExportReaders readers, final Function<T, Long> id, final Consumer<T> consumer) {
+        ExportProgress progress = new ExportProgress();
+
+        while (true) {
+            try {
+                restTemplate.execute(url, HttpMethod.GET,
+                        request -> request.getHeaders().setAccept(wireFormat.acceptStream()),
+                        response -> read(response, readers, id, consumer, progress), progress.after);
+                return progress.count;
+            } catch (RestClientException e) {
+                // entity-service may not be registered yet at startup, an interrupted export is resumed after the last id
+                LOG.warn("Could not export {} after {}, retrying in {} ms: {}", url, progress.after, retryIntervalMillis, e.getMessage());
+                if (!sleep()) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private <T> Void read(final ClientHttpResponse response, final ExportReaders readers, final Function<T, Long> id,
+                          final Consumer<T> consumer, final ExportProgress progress) throws IOException {
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null && contentType.equalsTypeAndSubtype(EntityServiceWireFormat.APPLICATION_CBOR_SEQ)) {
+            MappingIterator<T> entities = readers.cbor.readValues(response.getBody());
+            while (entities.hasNextValue()) {
+                accept(entities.nextValue(), id, consumer, progress);
+            }
+            return null;
+        }
+
+        BufferedReader lines = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.isEmpty()) {
+                accept(readers.json.readValue(line), id, consumer, progress);
+            }
+        }
+        return null;
+    }
+
+    private <T> void accept(final T entity, final Function<T, Long> id, final Consumer<T> consumer, final ExportProgress progress) {
+        consumer.accept(entity);
+        progress.after = id.apply(entity);
+        progress.count++;
+
+        if (progress.count % LOG_INTERVAL == 0) {
+            LOG.debug("Loaded {} entities, last id={}", progress.count, progress.after);
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(retryIntervalMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Reservation cache warm-up interrupted");
+            return false;
+        }
+    }
+
+    private static final class ExportReaders {
+        private final ObjectReader json;
+        private final ObjectReader cbor;
+
+        private ExportReaders(final ObjectReader json, final ObjectReader cbor) {
+            this.json = json;
+            this.cbor = cbor;
+        }
+    }
+
+    private static final class ExportProgress {
+        private long after;
+        private long count;
+    }
+}
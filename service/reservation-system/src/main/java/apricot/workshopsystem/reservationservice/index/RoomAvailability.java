@@ -0,0 +1,46 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.RoomDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds free rooms from the in-memory {@link RoomCatalog} and {@link ReservationCache}, without calling entity-service.
+ */
+@Component
+public class RoomAvailability {
+    private final RoomCatalog roomCatalog;
+    private final ReservationCache reservationCache;
+
+    public RoomAvailability(RoomCatalog roomCatalog, ReservationCache reservationCache) {
+        this.roomCatalog = roomCatalog;
+        this.reservationCache = reservationCache;
+    }
+
+    /**
+     * Find the rooms with enough seats that are free for a whole time range.
+     *
+     * @param from the start of the range.
+     * @param to the end of the range.
+     * @param minSeats the minimum number of seats.
+     * @param limit the maximum number of rooms to return.
+     * @return the free rooms ordered by number of seats, smallest first.
+     */
+    public List<RoomDTO> findFree(final LocalDateTime from, final LocalDateTime to, final int minSeats, final int limit) {
+        List<RoomDTO> free = new ArrayList<>();
+
+        for (RoomDTO room : roomCatalog.withSeats(minSeats)) {
+            if (reservationCache.isFree(room.getId(), from, to)) {
+                free.add(room);
+                if (free.size() == limit) {
+                    break;
+                }
+            }
+        }
+
+        return free;
+    }
+}
@@ -0,0 +1,115 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.RoomDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory catalog of all rooms, ordered by number of seats.
+ *
+ * <p>Rooms change rarely, so reads work on an immutable snapshot sorted by seats and the rooms with at least a given
+ * number of seats are found with a binary search. Changes only mark the snapshot stale, it is rebuilt once by the next
+ * read, so loading many rooms in a row does not sort them again for every room.</p>
+ */
+@Component
+public class RoomCatalog {
+    private static final Comparator<RoomDTO> BY_SEATS = Comparator.comparingInt(RoomDTO::getNumberOfSeat).thenComparing(RoomDTO::getId);
+
+    private final Map<Long, RoomDTO> rooms = new HashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(new RoomDTO[0]);
+    private volatile boolean stale;
+
+    /**
+     * Add or replace a room.
+     *
+     * @param room the room to add.
+     */
+    public synchronized void put(final RoomDTO room) {
+        rooms.put(room.getId(), room);
+        stale = true;
+    }
+
+    /**
+     * Remove a room.
+     *
+     * @param id the id of the room to remove.
+     */
+    public synchronized void remove(final long id) {
+        if (rooms.remove(id) != null) {
+            stale = true;
+        }
+    }
+
+    /**
+     * Remove all rooms.
+     */
+    public synchronized void clear() {
+        rooms.clear();
+        stale = true;
+    }
+
+    public int size() {
+        return snapshot().rooms.length;
+    }
+
+    /**
+     * Get the rooms with at least the given number of seats.
+     *
+     * @param minSeats the minimum number of seats.
+     * @return the rooms ordered by number of seats, smallest first.
+     */
+    public List<RoomDTO> withSeats(final int minSeats) {
+        Snapshot current = snapshot();
+        int from = current.lowerBound(minSeats);
+
+        return Collections.unmodifiableList(Arrays.asList(current.rooms).subList(from, current.rooms.length));
+    }
+
+    private Snapshot snapshot() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    RoomDTO[] sorted = rooms.values().toArray(new RoomDTO[0]);
+                    Arrays.sort(sorted, BY_SEATS);
+                    snapshot = new Snapshot(sorted);
+                    stale = false;
+                }
+            }
+        }
+
+        return snapshot;
+    }
+
+    private static final class Snapshot {
+        private final RoomDTO[] rooms;
+        private final int[] seats;
+
+        private Snapshot(final RoomDTO[] rooms) {
+            this.rooms = rooms;
+            this.seats = new int[rooms.length];
+            for (int i = 0; i < rooms.length; i++) {
+                seats[i] = rooms[i].getNumberOfSeat();
+            }
+        }
+
+        private int lowerBound(final int minSeats) {
+            int low = 0;
+            int high = seats.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (seats[mid] < minSeats) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import apricot.workshopsystem.common.util.TimeUtil;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Availability index of a single room.
+ *
+ * <p>Persisted reservations are stored as primitive columns sorted by start time: start and end in epoch seconds, id
+ * and booker id, and the running maximum of the end times. That is 40 bytes per reservation instead of a
+ * {@link ReservationDTO} with its boxed id and two {@link LocalDateTime}s, and the garbage collector only has to trace
+ * a handful of arrays per room. DTOs are only created for the reservations returned by a lookup.</p>
+ *
+ * <p>Since the running maximum of the end times never decreases, the reservation that conflicts with a time range and
+ * starts first is found with two binary searches in {@code O(log n)}. Adding or removing a reservation shifts the
+ * columns after it, new bookings mostly go to the end of the history where this is cheap. A bulk load, whose
+ * reservations come in any order, uses {@link #append} instead and the columns are sorted once afterwards.</p>
+ *
+ * <p>Holds, reservations without id yet, are short-lived and few, they are kept as they are and matched by identity.</p>
+ *
+ * <p>The reservations whose running maximum end is before a point in time are a prefix of the columns, so the past is
+ * dropped with a single copy by {@link #evictEndingBefore}.</p>
+ *
+ * <p>Overlap semantics are the ones of {@link TimeUtil#overlaps}, times are widened to whole seconds. This class is not
+ * thread-safe.</p>
+ */
+public class RoomReservationIndex {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int NONE = -1;
+
+    private final long roomId;
+    private final List<ReservationDTO> holds = new ArrayList<>();
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private long[] maxEnds = new long[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] bookerIds = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean sorted = true;
+
+    /**
+     * @param roomId the room of the indexed reservations, set on the reservations returned by lookups.
+     */
+    public RoomReservationIndex(final long roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * Add a reservation to the index.
+     *
+     * @param reservation the reservation to add, start and end must not be null.
+     */
+    public void add(final ReservationDTO reservation) {
+        if (reservation.getId() == null) {
+            holds.add(reservation);
+            return;
+        }
+
+        sort();
+
+        long start = floorSeconds(reservation.getStartDateTime());
+        long end = ceilSeconds(reservation.getEndDateTime());
+        int index = upperBound(starts, size, start);
+
+        if (size == starts.length) {
+            grow();
+        }
+
+        int moved = size - index;
+        System.arraycopy(starts, index, starts, index + 1, moved);
+        System.arraycopy(ends, index, ends, index + 1, moved);
+        System.arraycopy(maxEnds, index, maxEnds, index + 1, moved);
+        System.arraycopy(ids, index, ids, index + 1, moved);
+        System.arraycopy(bookerIds, index, bookerIds, index + 1, moved);
+
+        starts[index] = start;
+        ends[index] = end;
+        ids[index] = reservation.getId();
+        bookerIds[index] = reservation.getBookerId();
+        size++;
+
+        maxEnds[index] = index == 0 ? end : Math.max(maxEnds[index - 1], end);
+        // the running maximum after the new reservation only changes until it reaches its end
+        for (int i = index + 1; i < size && maxEnds[i] < end; i++) {
+            maxEnds[i] = end;
+        }
+    }
+
+    /**
+     * Add a reservation after the others in amortized {@code O(1)}, leaving the columns unsorted until {@link #sort()} is called.
+     * Any other operation sorts them first.
+     *
+     * @param reservation the reservation to add, start and end must not be null.
+     */
+    public void append(final ReservationDTO reservation) {
+        if (reservation.getId() == null) {
+            holds.add(reservation);
+            return;
+        }
+
+        if (size == starts.length) {
+            grow();
+        }
+
+        starts[size] = floorSeconds(reservation.getStartDateTime());
+        ends[size] = ceilSeconds(reservation.getEndDateTime());
+        ids[size] = reservation.getId();
+        bookerIds[size] = reservation.getBookerId();
+        size++;
+        sorted = false;
+    }
+
+    /**
+     * Sort the columns by start time and rebuild the running maximum of the end times in {@code O(n log n)}, after
+     * reservations have been appended.
+     */
+    public void sort() {
+        if (sorted) {
+            return;
+        }
+        sorted = true;
+
+        if (!isSortedByStart()) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+
+            starts = permute(starts, order);
+            ends = permute(ends, order);
+            ids = permute(ids, order);
+            bookerIds = permute(bookerIds, order);
+            maxEnds = new long[starts.length];
+        }
+
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            maxEnd = Math.max(maxEnd, ends[i]);
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    /**
+     * Remove a reservation from the index. Reservations are matched by id, or by identity if they have no id yet.
+     *
+     * @param reservation the reservation to remove.
+     * @return true if the reservation was found and removed.
+     */
+    public boolean remove(final ReservationDTO reservation) {
+        if (reservation.getId() == null) {
+            for (int i = 0; i < holds.size(); i++) {
+                if (holds.get(i) == reservation) {
+                    holds.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        sort();
+
+        long start = floorSeconds(reservation.getStartDateTime());
+        long id = reservation.getId();
+
+        for (int index = lowerBound(starts, size, start); index < size && starts[index] == start; index++) {
+            if (ids[index] == id) {
+                delete(index);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Remove the reservations that ended before a point in time. They can no longer conflict with a reservation
+     * starting after it. Reservations starting after one that is still running at that time are kept, as are holds.
+     *
+     * @param time the point in time.
+     * @return the number of removed reservations.
+     */
+    public int evictEndingBefore(final LocalDateTime time) {
+        sort();
+
+        int evicted = lowerBound(maxEnds, size, floorSeconds(time));
+        if (evicted == 0) {
+            return 0;
+        }
+
+        // the running maximum of the remaining reservations is at least time, the evicted ends do not change it
+        size -= evicted;
+        System.arraycopy(starts, evicted, starts, 0, size);
+        System.arraycopy(ends, evicted, ends, 0, size);
+        System.arraycopy(maxEnds, evicted, maxEnds, 0, size);
+        System.arraycopy(ids, evicted, ids, 0, size);
+        System.arraycopy(bookerIds, evicted, bookerIds, 0, size);
+
+        if (size < starts.length / 4 && starts.length > INITIAL_CAPACITY) {
+            resize(Math.max(INITIAL_CAPACITY, starts.length / 2));
+        }
+
+        return evicted;
+    }
+
+    /**
+     * Find a reservation overlapping with the given time range.
+     *
+     * @param start the start of the range.
+     * @param end the end of the range.
+     * @return the conflicting reservation that starts first, or empty if the room is free.
+     */
+    public Optional<ReservationDTO> findConflict(final LocalDateTime start, final LocalDateTime end) {
+        sort();
+
+        int conflict = findFirst(floorSeconds(start), ceilSeconds(end));
+
+        return conflict == NONE ? Optional.empty() : Optional.of(reservationAt(conflict));
+    }
+
+    /**
+     * Find the earliest free window that is long enough for a reservation of the given duration.
+     *
+     * <p>Only the reservations bounding gaps that are too short are visited, every step skips past one of them in
+     * {@code O(log n)}. Free windows start and end on whole minutes next to the reservations around them, as
+     * reservations touching each other overlap: the search starts at the first whole minute from {@code from}, and a
+     * window is only found if it is free up to the first whole minute after its start plus the duration.</p>
+     *
+     * @param from the earliest start of the window.
+     * @param duration the duration the window must fit.
+     * @param until the latest end of the window.
+     * @return the free window, or empty if no window fits before until.
+     */
+    public Optional<FreeWindow> findFreeWindow(final LocalDateTime from, final Duration duration, final LocalDateTime until) {
+        sort();
+
+        long start = ceilMinute(ceilSeconds(from));
+        long length = duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+        long last = floorSeconds(until);
+
+        while (start + length <= last) {
+            // the end of the window is the minute before the next reservation, it is free up to a whole minute too
+            int conflict = findFirst(start, Math.min(ceilMinute(start + length), last));
+
+            if (conflict == NONE) {
+                // the window runs up to the next reservation, further windows can only start after it
+                int next = findFirst(start, last);
+                if (next == NONE) {
+                    return Optional.of(new FreeWindow(toTime(start), until, null));
+                }
+                return Optional.of(new FreeWindow(toTime(start), toTime(minuteBefore(startAt(next))), toTime(minuteAfter(endAt(next)))));
+            }
+
+            start = minuteAfter(endAt(conflict));
+        }
+
+        return Optional.empty();
+    }
+
+    public int size() {
+        return size + holds.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Find the reservation overlapping with a time range that starts first.
+     *
+     * @return the position of the reservation, {@code >= 0} in the columns or {@code <= -2} in the holds, or
+     *      {@link #NONE}.
+     */
+    private int findFirst(final long start, final long end) {
+        int found = NONE;
+
+        // reservations starting after the end of the range cannot overlap, among the others the first one whose
+        // running maximum end reaches the start of the range is the first one that ends after it
+        int candidates = upperBound(starts, size, end);
+        if (candidates > 0 && maxEnds[candidates - 1] >= start) {
+            found = lowerBound(maxEnds, candidates, start);
+        }
+
+        for (int i = 0; i < holds.size(); i++) {
+            ReservationDTO hold = holds.get(i);
+            long holdStart = floorSeconds(hold.getStartDateTime());
+
+            if (holdStart <= end && ceilSeconds(hold.getEndDateTime()) >= start && (found == NONE || holdStart < startAt(found))) {
+                found = -i - 2;
+            }
+        }
+
+        return found;
+    }
+
+    private long startAt(final int position) {
+        return position >= 0 ? starts[position] : floorSeconds(holds.get(-position - 2).getStartDateTime());
+    }
+
+    private long endAt(final int position) {
+        return position >= 0 ? ends[position] : ceilSeconds(holds.get(-position - 2).getEndDateTime());
+    }
+
+    private ReservationDTO reservationAt(final int position) {
+        if (position < 0) {
+            return holds.get(-position - 2);
+        }
+
+        ReservationDTO reservation = new ReservationDTO();
+        reservation.setId(ids[position]);
+        reservation.setRoomId(roomId);
+        reservation.setBookerId(bookerIds[position]);
+        reservation.setStartDateTime(toTime(starts[position]));
+        reservation.setEndDateTime(toTime(ends[position]));
+        return reservation;
+    }
+
+    private void delete(final int index) {
+        int moved = size - index - 1;
+        System.arraycopy(starts, index + 1, starts, index, moved);
+        System.arraycopy(ends, index + 1, ends, index, moved);
+        System.arraycopy(maxEnds, index + 1, maxEnds, index, moved);
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(bookerIds, index + 1, bookerIds, index, moved);
+        size--;
+
+        // recompute the running maximum until it matches the one that did not include the removed reservation
+        long maxEnd = index == 0 ? Long.MIN_VALUE : maxEnds[index - 1];
+        for (int i = index; i < size; i++) {
+            maxEnd = Math.max(maxEnd, ends[i]);
+            if (maxEnds[i] == maxEnd) {
+                break;
+            }
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    private boolean isSortedByStart() {
+        for (int i = 1; i < size; i++) {
+            if (starts[i] < starts[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] permute(final long[] column, final Integer[] order) {
+        long[] permuted = new long[column.length];
+        for (int i = 0; i < size; i++) {
+            permuted[i] = column[order[i]];
+        }
+        return permuted;
+    }
+
+    private void grow() {
+        resize(starts.length * 2);
+    }
+
+    private void resize(final int capacity) {
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        maxEnds = Arrays.copyOf(maxEnds, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        bookerIds = Arrays.copyOf(bookerIds, capacity);
+    }
+
+    /**
+     * @return the index of the first of the sorted values that is greater than or equal to the key.
+     */
+    private static int lowerBound(final long[] values, final int length, final long key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the first of the sorted values that is greater than the key.
+     */
+    private static int upperBound(final long[] values, final int length, final long key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long floorSeconds(final LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long ceilSeconds(final LocalDateTime time) {
+        return time.getNano() == 0 ? floorSeconds(time) : floorSeconds(time) + 1;
+    }
+
+    private static LocalDateTime toTime(final long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static long minuteAfter(final long seconds) {
+        return Math.floorDiv(seconds, 60) * 60 + 60;
+    }
+
+    private static long ceilMinute(final long seconds) {
+        return Math.floorDiv(seconds + 59, 60) * 60;
+    }
+
+    private static long minuteBefore(final long seconds) {
+        return Math.floorDiv(seconds - 1, 60) * 60;
+    }
+}
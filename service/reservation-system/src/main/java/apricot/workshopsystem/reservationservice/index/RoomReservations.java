@@ -0,0 +1,199 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe holder of the {@link RoomReservationIndex} of one room.
+ *
+ * <p>Every room has its own lock, so bookings for different rooms never contend with each other, while
+ * availability checks on the same room can run concurrently.</p>
+ */
+public class RoomReservations {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoomReservationIndex index;
+
+    public RoomReservations(final long roomId) {
+        this.index = new RoomReservationIndex(roomId);
+    }
+
+    /**
+     * Find a reservation overlapping with the given time range.
+     *
+     * @param start the start of the range.
+     * @param end the end of the range.
+     * @return the conflicting reservation that starts first, or empty if the room is free.
+     */
+    public Optional<ReservationDTO> findConflict(final LocalDateTime start, final LocalDateTime end) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return index.findConflict(start, end);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Find the earliest free window that is long enough for a reservation of the given duration.
+     *
+     * @param from the earliest start of the window.
+     * @param duration the duration the window must fit.
+     * @param until the latest end of the window.
+     * @return the free window, or empty if no window fits before until.
+     */
+    public Optional<FreeWindow> findFreeWindow(final LocalDateTime from, final Duration duration, final LocalDateTime until) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return index.findFreeWindow(from, duration, until);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Atomically check the time range of the reservation and add it if the room is free.
+     *
+     * @param reservation the reservation to add.
+     * @return the conflicting reservation if the room is busy, or empty if the reservation was added.
+     */
+    public Optional<ReservationDTO> addIfFree(final ReservationDTO reservation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            Optional<ReservationDTO> conflict = index.findConflict(reservation.getStartDateTime(), reservation.getEndDateTime());
+            if (conflict.isEmpty()) {
+                index.add(reservation);
+            }
+            return conflict;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add a reservation without checking for conflicts.
+     *
+     * @param reservation the reservation to add.
+     */
+    public void add(final ReservationDTO reservation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index.add(reservation);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add a reservation of a bulk load without checking for conflicts, the index is sorted by {@link #sort()}.
+     *
+     * @param reservation the reservation to add.
+     */
+    public void append(final ReservationDTO reservation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index.append(reservation);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Sort the index after a bulk load.
+     */
+    public void sort() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index.sort();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Add a reservation, replacing the one with the same id and start if it is already indexed.
+     *
+     * @param reservation the reservation to add.
+     */
+    public void put(final ReservationDTO reservation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index.remove(reservation);
+            index.add(reservation);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Atomically replace a reservation with another one.
+     *
+     * @param existing the reservation to remove.
+     * @param replacement the reservation to add, replacing the one with the same id and start if it is already indexed.
+     */
+    public void replace(final ReservationDTO existing, final ReservationDTO replacement) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index.remove(existing);
+            index.remove(replacement);
+            index.add(replacement);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a reservation.
+     *
+     * @param reservation the reservation to remove.
+     * @return true if the reservation was found and removed.
+     */
+    public boolean remove(final ReservationDTO reservation) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return index.remove(reservation);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove the reservations that ended before a point in time.
+     *
+     * @param time the point in time.
+     * @return the number of removed reservations.
+     */
+    public int evictEndingBefore(final LocalDateTime time) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return index.evictEndingBefore(time);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return index.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
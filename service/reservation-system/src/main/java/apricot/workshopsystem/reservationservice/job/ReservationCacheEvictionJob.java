@@ -0,0 +1,36 @@
+package apricot.workshopsystem.reservationservice.job;
+
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Drops the reservations that ended before the retention period from the reservation cache. They can not conflict
+ * with new bookings, which must start after the cache horizon.
+ */
+@Component
+public class ReservationCacheEvictionJob {
+    private static final Logger LOG = LoggerFactory.getLogger(ReservationCacheEvictionJob.class);
+
+    private final ReservationCache reservationCache;
+    private final long retentionHours;
+
+    public ReservationCacheEvictionJob(ReservationCache reservationCache,
+                                       @Value("${workshop.reservation-cache.retention-hours:24}") long retentionHours) {
+        this.reservationCache = reservationCache;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${workshop.reservation-cache.eviction-interval-ms:3600000}")
+    public void evict() {
+        LocalDateTime horizon = LocalDateTime.now().minusHours(retentionHours);
+        int evicted = reservationCache.evictBefore(horizon);
+
+        LOG.info("Evicted {} reservations ended before {}", evicted, horizon);
+    }
+}
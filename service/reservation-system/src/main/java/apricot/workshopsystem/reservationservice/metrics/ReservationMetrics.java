@@ -0,0 +1,125 @@
+package apricot.workshopsystem.reservationservice.metrics;
+
+import apricot.workshopsystem.reservationservice.index.ReservationCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of the reservation pipeline, published through actuator, e.g. in Prometheus format on
+ * {@code /actuator/prometheus}.
+ *
+ * <ul>
+ *     <li>{@code reservation.stage}: a timer for every stage of a booking, tagged with the stage.</li>
+ *     <li>{@code reservation.rejected}: a counter of rejected bookings, tagged with the reason.</li>
+ *     <li>{@code reservation.cache.*}: gauges of the reservation cache size and the duration of its warm-up.</li>
+ * </ul>
+ *
+ * <p>The cache is not measured per room, a gauge per room would publish one time series for every room. The size of
+ * the largest room is published instead, it bounds the cost of a lookup.</p>
+ */
+@Component
+public class ReservationMetrics {
+    public enum Stage {
+        OVERLAP_CHECK, BOOKER_FETCH, ROOM_FETCH, HOLD, ENTITY_SERVICE_POST, CACHE_CONFIRM
+    }
+
+    public enum Rejection {
+        WARMING_UP, INVALID, BEFORE_HORIZON, BUSY, BOOKER_NOT_FOUND, ROOM_NOT_FOUND, ENTITY_SERVICE_REJECTED, ERROR
+    }
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final Timer warmUp;
+
+    public ReservationMetrics(MeterRegistry meterRegistry, ReservationCache reservationCache) {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("reservation.stage")
+                    .description("Time spent in a stage of a booking")
+                    .tag("stage", name(stage))
+                    .register(meterRegistry));
+        }
+
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("reservation.rejected")
+                    .description("Rejected bookings")
+                    .tag("reason", name(rejection))
+                    .register(meterRegistry));
+        }
+
+        this.warmUp = Timer.builder("reservation.cache.warmup")
+                .description("Time to load the reservation cache")
+                .register(meterRegistry);
+
+        Gauge.builder("reservation.cache.reservations", reservationCache, ReservationCache::size)
+                .description("Cached reservations")
+                .register(meterRegistry);
+        Gauge.builder("reservation.cache.rooms", reservationCache, ReservationCache::roomCount)
+                .description("Rooms with cached reservations")
+                .register(meterRegistry);
+        Gauge.builder("reservation.cache.room.reservations.max", reservationCache, ReservationCache::largestRoomSize)
+                .description("Cached reservations of the largest room")
+                .register(meterRegistry);
+        Gauge.builder("reservation.cache.loaded", reservationCache, cache -> cache.isLoaded() ? 1 : 0)
+                .description("1 once the reservation cache is warm")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Time a synchronous stage.
+     *
+     * @param stage the stage.
+     * @param supplier the stage.
+     * @return the result of the stage.
+     */
+    public <T> T time(final Stage stage, final Supplier<T> supplier) {
+        return stages.get(stage).record(supplier);
+    }
+
+    /**
+     * Time a synchronous stage.
+     *
+     * @param stage the stage.
+     * @param runnable the stage.
+     */
+    public void time(final Stage stage, final Runnable runnable) {
+        stages.get(stage).record(runnable);
+    }
+
+    /**
+     * Time an asynchronous stage, from subscription until it completes, fails or is cancelled.
+     *
+     * @param stage the stage.
+     * @param mono the stage.
+     * @return the timed stage.
+     */
+    public <T> Mono<T> time(final Stage stage, final Mono<T> mono) {
+        Timer timer = stages.get(stage);
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> timer.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    public void reject(final Rejection rejection) {
+        rejections.get(rejection).increment();
+    }
+
+    public void recordWarmUp(final Duration duration) {
+        warmUp.record(duration);
+    }
+
+    private static String name(final Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
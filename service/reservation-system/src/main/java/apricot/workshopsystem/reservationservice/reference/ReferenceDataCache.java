@@ -0,0 +1,97 @@
+package apricot.workshopsystem.reservationservice.reference;
+
+import apricot.workshopsystem.common.dto.BookerDTO;
+import apricot.workshopsystem.common.dto.RoomDTO;
+import apricot.workshopsystem.reservationservice.client.EntityServiceClient;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded cache of the bookers and rooms referenced by reservations.
+ *
+ * <p>Entries expire after a configurable time and the least used ones are evicted once the maximum size is reached.
+ * A miss is filled with a single-id lookup on entity-service. Unknown ids are not cached, so a newly created booker or
+ * room can be used right away. Hit and miss counts are published as {@code cache.gets} metrics.</p>
+ *
+ * <p>Lookups are asynchronous: concurrent misses on the same id share one remote call and no thread waits for it.</p>
+ */
+@Component
+public class ReferenceDataCache {
+    private final AsyncLoadingCache<Long, BookerDTO> bookers;
+    private final AsyncLoadingCache<Long, RoomDTO> rooms;
+
+    public ReferenceDataCache(EntityServiceClient entityServiceClient, MeterRegistry meterRegistry,
+                              @Value("${workshop.reference-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${workshop.reference-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+        this.bookers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .buildAsync((id, executor) -> entityServiceClient.findBooker(id).toFuture());
+
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .buildAsync((id, executor) -> entityServiceClient.findRoom(id).toFuture());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, bookers.synchronous(), "bookers");
+        CaffeineCacheMetrics.monitor(meterRegistry, rooms.synchronous(), "rooms");
+    }
+
+    /**
+     * Get the "id" booker.
+     *
+     * @param id the id of the booker.
+     * @return the booker, or empty if it does not exist.
+     */
+    public Mono<BookerDTO> booker(final long id) {
+        return Mono.fromFuture(bookers.get(id));
+    }
+
+    /**
+     * Get the "id" room.
+     *
+     * @param id the id of the room.
+     * @return the room, or empty if it does not exist.
+     */
+    public Mono<RoomDTO> room(final long id) {
+        return Mono.fromFuture(rooms.get(id));
+    }
+
+    /**
+     * Get the "id" booker, blocking until it is loaded.
+     *
+     * @param id the id of the booker.
+     * @return the booker, or empty if it does not exist.
+     */
+    public Optional<BookerDTO> findBooker(final long id) {
+        return Optional.ofNullable(bookers.synchronous().get(id));
+    }
+
+    /**
+     * Get the "id" room, blocking until it is loaded.
+     *
+     * @param id the id of the room.
+     * @return the room, or empty if it does not exist.
+     */
+    public Optional<RoomDTO> findRoom(final long id) {
+        return Optional.ofNullable(rooms.synchronous().get(id));
+    }
+
+    public void evictBooker(final long id) {
+        bookers.synchronous().invalidate(id);
+    }
+
+    public void evictRoom(final long id) {
+        rooms.synchronous().invalidate(id);
+    }
+}
@@ -0,0 +1,36 @@
+package apricot.workshopsystem.reservationservice.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a span around the choice of a service instance by the load balancer, so the time spent resolving
+ * entity-service through Eureka shows up in the trace of a booking, next to the spans of the calls themselves.
+ */
+@Aspect
+@Component
+public class DiscoveryTracingAspect {
+    private final Tracer tracer;
+
+    public DiscoveryTracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("execution(* org.springframework.cloud.client.loadbalancer.ServiceInstanceChooser.choose(String)) && args(serviceId)")
+    public Object trace(final ProceedingJoinPoint joinPoint, final String serviceId) throws Throwable {
+        Span span = tracer.nextSpan().name("discovery-resolve").tag("service", serviceId).start();
+
+        try (Tracer.SpanInScope ignored = tracer.withSpanInScope(span)) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.finish();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package apricot.workshopsystem.reservationservice.index;
+
+import apricot.workshopsystem.common.dto.ReservationDTO;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Free windows found from a time that is not on a whole minute must still fit the requested duration.
+ */
+public class RoomReservationIndexTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime UNTIL = DAY.withHour(14);
+
+    @Test
+    public void windowFromUnalignedTimeSkipsGapThatIsTooShort() {
+        RoomReservationIndex index = index();
+
+        // 10:00:30 to 11:00:30 is free, but the window must end on a whole minute before the reservation at 11:01
+        FreeWindow window = index.findFreeWindow(DAY.withHour(10).withSecond(30), Duration.ofMinutes(60), UNTIL).orElseThrow();
+
+        assertEquals(DAY.withHour(11).withMinute(31), window.getStart());
+        assertEquals(UNTIL, window.getEnd());
+        assertNull(window.getNext());
+    }
+
+    @Test
+    public void windowFromUnalignedTimeStartsOnWholeMinute() {
+        RoomReservationIndex index = index();
+
+        FreeWindow window = index.findFreeWindow(DAY.withHour(10).withSecond(30), Duration.ofMinutes(59), UNTIL).orElseThrow();
+
+        assertEquals(DAY.withHour(10).withMinute(1), window.getStart());
+        assertEquals(DAY.withHour(11), window.getEnd());
+        assertEquals(DAY.withHour(11).withMinute(31), window.getNext());
+        assertFalse(window.getEnd().isBefore(window.getStart().plusMinutes(59)));
+    }
+
+    private static RoomReservationIndex index() {
+        RoomReservationIndex index = new RoomReservationIndex(1);
+        index.add(reservation(1L, DAY.withHour(9), DAY.withHour(9).withMinute(59)));
+        index.add(reservation(2L, DAY.withHour(11).withMinute(1), DAY.withHour(11).withMinute(30)));
+        return index;
+    }
+
+    private static ReservationDTO reservation(final Long id, final LocalDateTime start, final LocalDateTime end) {
+        ReservationDTO reservation = new ReservationDTO();
+        reservation.setId(id);
+        reservation.setRoomId(1);
+        reservation.setBookerId(1);
+        reservation.setStartDateTime(start);
+        reservation.setEndDateTime(end);
+        return reservation;
+    }
+}